@@ -0,0 +1,89 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A benchmark run by BenchmarkRunner.
+ *
+ * run() is called repeatedly during warmup and measurement iterations,
+ * it returns how many operations it did, the score is operations per second.
+ *
+ * @author Andersen
+ */
+public abstract class Benchmark {
+
+    private final String name;
+    private final Map<String, String> params = new LinkedHashMap<String, String>();
+
+    protected Benchmark(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    protected Benchmark param(String key, Object value) {
+        params.put(key, String.valueOf(value));
+        return this;
+    }
+
+    /**
+     * called once before the warmup.
+     */
+    public void setUp() throws Exception {
+    }
+
+    /**
+     * @return the number of operations done.
+     */
+    public abstract long run() throws Exception;
+
+    /**
+     * called once after the measurement.
+     */
+    public void tearDown() throws Exception {
+    }
+
+    /**
+     * @return name and params, e.g. "smartTable.fillAndFlush{columns=4, rows=50}".
+     */
+    public String getId() {
+        return params.isEmpty() ? name : name + params;
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Run the hot path benchmarks and write the results as JSON,
+ * the report could be compared with the one of the previous version.
+ *
+ * system properties:
+ *   benchmark.report     path of the JSON report, build/benchmark/results.json by default
+ *   benchmark.filter     regular expression on the benchmark id, all by default
+ *   benchmark.warmup     warmup iterations, 3 by default
+ *   benchmark.iterations measurement iterations, 5 by default
+ *   benchmark.time       milliseconds of an iteration, 1000 by default
+ *   benchmark.font       DBCS font, benchmark.ansiFont ANSI font
+ *
+ * @author Andersen
+ */
+public final class BenchmarkRunner {
+
+    private final int warmupIterations = Integer.getInteger("benchmark.warmup", 3);
+    private final int measurementIterations = Integer.getInteger("benchmark.iterations", 5);
+    private final long iterationMillis = Long.getLong("benchmark.time", 1000L);
+
+    private BenchmarkRunner() {
+    }
+
+    static List<Benchmark> suite() {
+        List<Benchmark> suite = new ArrayList<Benchmark>();
+        suite.add(new CellBenchmark(false));
+        suite.add(new CellBenchmark(true));
+        suite.add(new StyledCellBenchmark(true));
+        suite.add(new StyledCellBenchmark(false));
+        suite.add(new SmartTableBenchmark(4, 50));
+        suite.add(new SmartTableBenchmark(10, 50));
+        suite.add(new SmartTableBenchmark(4, 500));
+        suite.add(new MediatorOverflowBenchmark(2));
+        suite.add(new MediatorOverflowBenchmark(8));
+        suite.add(new RowBenchmark(false));
+        suite.add(new RowBenchmark(true));
+        suite.add(new PipelineBenchmark(false));
+        suite.add(new PipelineBenchmark(true));
+        suite.add(new WrapTextBenchmark(200));
+        suite.add(new WrapTextBenchmark(2000));
+        suite.add(new FlushTableBenchmark(100));
+        suite.add(new FlushTableBenchmark(2000));
+        suite.add(new WriterConstructionBenchmark());
+        return suite;
+    }
+
+    /**
+     * @return operations per second of every measurement iteration.
+     */
+    private double[] measure(Benchmark benchmark) throws Exception {
+        benchmark.setUp();
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                iteration(benchmark);
+            }
+            double[] scores = new double[measurementIterations];
+            for (int i = 0; i < measurementIterations; i++) {
+                scores[i] = iteration(benchmark);
+            }
+            return scores;
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    private double iteration(Benchmark benchmark) throws Exception {
+        long ops = 0L;
+        long start = System.nanoTime();
+        long deadline = start + iterationMillis * 1000000L;
+        long now;
+        do {
+            ops += benchmark.run();
+            now = System.nanoTime();
+        } while (now < deadline);
+        return ops * 1000000000D / (now - start);
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0D;
+        for (double v : values) {
+            sum += v;
+        }
+        return sum / values.length;
+    }
+
+    private static double stdev(double[] values) {
+        if (values.length < 2) {
+            return 0D;
+        }
+        double mean = mean(values);
+        double sum = 0D;
+        for (double v : values) {
+            sum += (v - mean) * (v - mean);
+        }
+        return Math.sqrt(sum / (values.length - 1));
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private void writeReport(File file, List<Benchmark> benchmarks, List<double[]> results) throws Exception {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+        try {
+            out.println("[");
+            for (int i = 0; i < benchmarks.size(); i++) {
+                Benchmark benchmark = benchmarks.get(i);
+                double[] scores = results.get(i);
+                out.println("    {");
+                out.println("        \"benchmark\": " + quote(benchmark.getName()) + ",");
+                out.print("        \"params\": {");
+                boolean first = true;
+                for (Map.Entry<String, String> param : benchmark.getParams().entrySet()) {
+                    out.print((first ? "" : ", ") + quote(param.getKey()) + ": " + quote(param.getValue()));
+                    first = false;
+                }
+                out.println("},");
+                out.println("        \"mode\": \"thrpt\",");
+                out.println("        \"unit\": \"ops/s\",");
+                out.println("        \"warmupIterations\": " + warmupIterations + ",");
+                out.println("        \"iterationMillis\": " + iterationMillis + ",");
+                out.println("        \"score\": " + mean(scores) + ",");
+                out.println("        \"scoreStdev\": " + stdev(scores) + ",");
+                out.print("        \"iterations\": [");
+                for (int k = 0; k < scores.length; k++) {
+                    out.print((k == 0 ? "" : ", ") + scores[k]);
+                }
+                out.println("]");
+                out.println(i == benchmarks.size() - 1 ? "    }" : "    },");
+            }
+            out.println("]");
+        } finally {
+            out.close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        Pattern filter = Pattern.compile(System.getProperty("benchmark.filter", ".*"));
+        File report = new File(System.getProperty("benchmark.report", "build/benchmark/results.json"));
+
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        List<double[]> results = new ArrayList<double[]>();
+        for (Benchmark benchmark : suite()) {
+            if (!filter.matcher(benchmark.getId()).find()) {
+                continue;
+            }
+            double[] scores = runner.measure(benchmark);
+            benchmarks.add(benchmark);
+            results.add(scores);
+            System.out.println(String.format("%-55s %15.2f ops/s  +- %.2f", benchmark.getId(), mean(scores), stdev(scores)));
+        }
+        runner.writeReport(report, benchmarks, results);
+        System.out.println("report: " + report.getAbsolutePath());
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.benchmark;
+
+import fc.extensions.itext.bind.RowBinding;
+import fc.extensions.itext.smart.CellStyle;
+import java.math.BigDecimal;
+import java.util.Date;
+import org.apache.commons.beanutils.BeanUtils;
+
+/**
+ * Cost of turning beans into row contents, BeanUtils.getProperty per cell
+ * against a compiled RowBinding.
+ *
+ * usage: BindingBenchmark [rows]
+ *
+ * @author Andersen
+ */
+public final class BindingBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final String[] PATHS = {"date", "memo", "amount", "balance", "account.number"};
+
+    private static long sink = 0L;
+
+    public static final class Account {
+
+        private final String number;
+
+        public Account(String number) {
+            this.number = number;
+        }
+
+        public String getNumber() {
+            return number;
+        }
+    }
+
+    public static final class Transaction {
+
+        private final Date date;
+        private final String memo;
+        private final BigDecimal amount;
+        private final long balance;
+        private final Account account;
+
+        public Transaction(Date date, String memo, BigDecimal amount, long balance, Account account) {
+            this.date = date;
+            this.memo = memo;
+            this.amount = amount;
+            this.balance = balance;
+            this.account = account;
+        }
+
+        public Date getDate() {
+            return date;
+        }
+
+        public String getMemo() {
+            return memo;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public long getBalance() {
+            return balance;
+        }
+
+        public Account getAccount() {
+            return account;
+        }
+    }
+
+    private BindingBenchmark() {
+    }
+
+    private static long runBeanUtils(Transaction[] beans) throws Exception {
+        long start = System.nanoTime();
+        for (Transaction bean : beans) {
+            for (String path : PATHS) {
+                sink += BeanUtils.getNestedProperty(bean, path).length();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runBinding(RowBinding<Transaction> binding, Transaction[] beans) {
+        long start = System.nanoTime();
+        for (Transaction bean : beans) {
+            for (int i = 0; i < PATHS.length; i++) {
+                sink += binding.format(bean, i).length();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, long nanos, int rows) {
+        System.out.println(String.format("%-30s %10.2f ms %12.1f ns/row", name, nanos / 1000000D, (double) nanos / rows));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+        Account account = new Account("0000-1234-5678");
+        Transaction[] beans = new Transaction[rows];
+        for (int i = 0; i < rows; i++) {
+            beans[i] = new Transaction(new Date(1262304000000L + i * 60000L), "Transaction " + i,
+                    new BigDecimal(i).movePointLeft(2), i * 7L, account);
+        }
+        RowBinding<Transaction> binding = new RowBinding<Transaction>(Transaction.class);
+        for (String path : PATHS) {
+            binding.addColumn(path, CellStyle.DEFAULT);
+        }
+        binding.compile();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runBeanUtils(beans);
+            runBinding(binding, beans);
+        }
+        System.out.println("rows: " + rows + ", columns: " + PATHS.length);
+        report("BeanUtils.getNestedProperty", runBeanUtils(beans), rows);
+        report("RowBinding", runBinding(binding, beans), rows);
+        System.out.println("(" + sink + ")");
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.benchmark;
+
+import com.itextpdf.text.pdf.PdfPTable;
+
+/**
+ * Writer.flushTable on a large table, per row.
+ *
+ * @author Andersen
+ */
+public final class FlushTableBenchmark extends WriterBenchmark {
+
+    private static final int COLUMNS = 5;
+
+    private final int rows;
+    private PdfPTable table = null;
+
+    public FlushTableBenchmark(int rows) {
+        super("writer.flushTable");
+        this.rows = rows;
+        param("rows", rows);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        table = writer.createTable(COLUMNS, 500F, new int[]{1, 2, 2, 1, 1});
+        for (int i = 0; i < rows * COLUMNS; i++) {
+            writer.addAnsiCell(table, "Cell " + i, 9, .5F, 1);
+        }
+    }
+
+    @Override
+    public long run() throws Exception {
+        writer.flushTable(table, 20F, 820F);
+        writer.newPage();
+        return rows;
+    }
+}
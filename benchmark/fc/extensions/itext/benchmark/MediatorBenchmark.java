@@ -0,0 +1,108 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.benchmark;
+
+import fc.extensions.itext.smart.Position;
+import fc.extensions.itext.smart.SmartTable;
+import fc.extensions.itext.smart.TableMediator;
+import org.apache.commons.beanutils.locale.LocaleBeanUtils;
+
+/**
+ * Cost of building a TableMediator, the reflective copy used before
+ * (LocaleBeanUtils.copyProperties per table) against the TableSpec stamping.
+ *
+ * usage: MediatorBenchmark [iterations] [tablesPerMediator]
+ *
+ * @author Andersen
+ */
+public final class MediatorBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static long sink = 0L;
+
+    private MediatorBenchmark() {
+    }
+
+    /**
+     * what the mediator constructor did before.
+     */
+    private static SmartTable[] reflectiveCopy(SmartTable table, int count, float gap) throws Exception {
+        SmartTable[] tables = new SmartTable[count];
+        float left = table.getPosition().getLeft();
+        float width = (table.getPosition().getWidth() - (gap * (float) count)) / (float) count;
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = new SmartTable(null, null, 0, 0, 0, 0F);
+            LocaleBeanUtils.copyProperties(tables[i], table);
+            tables[i].setPosition(new Position(table.getPosition()));
+            tables[i].getPosition().setLeft(left);
+            tables[i].getPosition().setRight(left + width);
+            left += (width + gap);
+        }
+        tables[0].setReplicatorPosition(table.getPosition());
+        return tables;
+    }
+
+    private static long runReflective(SmartTable table, int iterations, int count) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += reflectiveCopy(table, count, 5F).length;
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runSpec(SmartTable table, int iterations, int count) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += new TableMediator(table, count, 5F).remainingCells();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, long nanos, int iterations) {
+        System.out.println(String.format("%-30s %10.2f ms %12.1f ns/mediator", name, nanos / 1000000D, (double) nanos / iterations));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        SmartTable table = new SmartTable(null, new Position(10F, 10F, 580F, 800F), 4, 20, 9, .5F, new int[]{1, 2, 2, 1});
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runReflective(table, iterations / 10, count);
+            runSpec(table, iterations / 10, count);
+        }
+        System.out.println("iterations: " + iterations + ", tables per mediator: " + count);
+        report("LocaleBeanUtils.copyProperties", runReflective(table, iterations, count), iterations);
+        report("TableSpec", runSpec(table, iterations, count), iterations);
+        System.out.println("(" + sink + ")");
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.benchmark;
+
+import fc.extensions.itext.smart.Position;
+import fc.extensions.itext.smart.SmartTable;
+import fc.extensions.itext.smart.TableMediator;
+
+/**
+ * Fill the tables of a TableMediator and keep adding after they were full, per add.
+ *
+ * @author Andersen
+ */
+public final class MediatorOverflowBenchmark extends WriterBenchmark {
+
+    private static final int REJECTED_ADDS = 100;
+
+    private final int tables;
+
+    public MediatorOverflowBenchmark(int tables) {
+        super("tableMediator.overflow");
+        this.tables = tables;
+        param("tables", tables);
+    }
+
+    @Override
+    public long run() throws Exception {
+        SmartTable table = new SmartTable(writer, new Position(20F, 20F, 575F, 820F), 2, 10, 9, .5F);
+        TableMediator mediator = new TableMediator(table, tables, 5F);
+        long adds = 0L;
+        while (mediator.addAnsiCell("Cell")) {
+            adds++;
+        }
+        for (int i = 0; i < REJECTED_ADDS; i++) {
+            mediator.addAnsiCell("Cell");
+        }
+        writer.newPage();
+        return adds + 1 + REJECTED_ADDS;
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.benchmark;
+
+import fc.extensions.itext.ChannelOutputStream;
+import fc.extensions.itext.OutputSettings;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Compare raw FileOutputStream with ChannelOutputStream by replaying
+ * the write pattern of PdfWriter (lots of small writes).
+ *
+ * usage: OutputBenchmark [documents] [bytesPerDocument] [bufferSize...]
+ *
+ * @author Andersen
+ */
+public final class OutputBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+
+    private final int documents;
+    private final int bytesPerDocument;
+    private final byte[] payload;
+    private final int[] chunks;
+    private final File dir;
+
+    private OutputBenchmark(int documents, int bytesPerDocument) throws IOException {
+        this.documents = documents;
+        this.bytesPerDocument = bytesPerDocument;
+        this.payload = new byte[bytesPerDocument];
+        Random random = new Random(42L);
+        random.nextBytes(payload);
+        // PdfWriter writes tokens and short operators, mostly 1 ~ 64 bytes.
+        int[] tmp = new int[bytesPerDocument];
+        int count = 0;
+        int total = 0;
+        while (total < bytesPerDocument) {
+            int len = Math.min(1 + random.nextInt(64), bytesPerDocument - total);
+            tmp[count++] = len;
+            total += len;
+        }
+        this.chunks = new int[count];
+        System.arraycopy(tmp, 0, chunks, 0, count);
+        this.dir = File.createTempFile("output-benchmark", "");
+        dir.delete();
+        dir.mkdirs();
+    }
+
+    private void replay(OutputStream os) throws IOException {
+        int offset = 0;
+        for (int len : chunks) {
+            if (len == 1) {
+                os.write(payload[offset]);
+            } else {
+                os.write(payload, offset, len);
+            }
+            offset += len;
+        }
+        os.close();
+    }
+
+    private long runFileOutputStream() throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < documents; i++) {
+            replay(new FileOutputStream(new File(dir, "fos-" + i + ".pdf")));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long runChannel(OutputSettings settings) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < documents; i++) {
+            replay(new ChannelOutputStream(new File(dir, "channel-" + i + ".pdf"), settings));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void cleanup() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private void report(String name, long nanos) {
+        double millis = nanos / 1000000D;
+        double mbPerSecond = ((double) documents * bytesPerDocument / (1024D * 1024D)) / (nanos / 1000000000D);
+        System.out.println(String.format("%-40s %10.2f ms %10.3f ms/doc %10.2f MB/s", name, millis, millis / documents, mbPerSecond));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int documents = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int bytesPerDocument = args.length > 1 ? Integer.parseInt(args[1]) : 200 * 1024;
+        int[] bufferSizes;
+        if (args.length > 2) {
+            bufferSizes = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                bufferSizes[i - 2] = Integer.parseInt(args[i]);
+            }
+        } else {
+            bufferSizes = new int[]{8 * 1024, OutputSettings.DEFAULT_BUFFER_SIZE, 256 * 1024};
+        }
+
+        OutputBenchmark benchmark = new OutputBenchmark(documents, bytesPerDocument);
+        try {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                benchmark.runFileOutputStream();
+                benchmark.runChannel(new OutputSettings());
+            }
+            System.out.println("documents: " + documents + ", bytes per document: " + bytesPerDocument);
+            benchmark.report("FileOutputStream", benchmark.runFileOutputStream());
+            for (int bufferSize : bufferSizes) {
+                for (OutputSettings.SyncPolicy policy : OutputSettings.SyncPolicy.values()) {
+                    OutputSettings settings = new OutputSettings(bufferSize, policy);
+                    benchmark.report("Channel " + (bufferSize / 1024) + "K " + policy, benchmark.runChannel(settings));
+                    settings.setDirectBuffer(true);
+                    benchmark.report("Channel " + (bufferSize / 1024) + "K direct " + policy, benchmark.runChannel(settings));
+                }
+            }
+        } finally {
+            benchmark.cleanup();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.benchmark;
+
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.pdf.PdfPTable;
+import fc.extensions.itext.DocumentPart;
+import fc.extensions.itext.Page;
+import fc.extensions.itext.ParallelDocument;
+import fc.extensions.itext.Writer;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generation time of one large statement written by a single Writer against a ParallelDocument
+ * of the same pages, split into parts.
+ *
+ * usage: ParallelDocumentBenchmark [pages] [pagesPerPart] [threads]
+ *
+ * fonts are taken from -Dbenchmark.font and -Dbenchmark.ansiFont.
+ *
+ * @author Andersen
+ */
+public final class ParallelDocumentBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int ROUNDS = 3;
+    private static final int ROWS_PER_PAGE = 40;
+
+    private final int pages;
+    private final int pagesPerPart;
+    private final int threads;
+
+    private ParallelDocumentBenchmark(int pages, int pagesPerPart, int threads) {
+        this.pages = pages;
+        this.pagesPerPart = pagesPerPart;
+        this.threads = threads;
+    }
+
+    private static Page page() {
+        Page page = new Page();
+        page.getHeader().getPosition().setLeft(20F);
+        page.getHeader().getPosition().setRight(575F);
+        page.getHeader().getPosition().setTop(820F);
+        page.getHeader().getPosition().setBottom(790F);
+        page.getHeader().setFontSize(9F);
+        page.getHeader().setBody(new String[]{"Monthly Statement", "Page"});
+        return page;
+    }
+
+    private static void writePages(Writer writer, int from, int to) throws Exception {
+        int no = from * ROWS_PER_PAGE;
+        for (int p = from; p < to; p++) {
+            PdfPTable table = writer.createTable(5, 550F, new int[]{2, 4, 2, 2, 2});
+            for (int r = 0; r < ROWS_PER_PAGE; r++, no++) {
+                writer.addAnsiCell(table, "2010-01-" + (10 + r % 20), 8, .5F, 1);
+                writer.addCell(table, "Transaction description " + no, 8, .5F, 1);
+                writer.addAnsiCell(table, String.valueOf(no * 7 % 1000), 8, .5F, 1);
+                writer.addAnsiCell(table, String.valueOf(no * 13 % 1000), 8, .5F, 1);
+                writer.addAnsiCell(table, String.valueOf(no * 31 % 100000), 8, .5F, 1);
+            }
+            writer.flushTable(table, 22F, 780F);
+            writer.newPage();
+        }
+    }
+
+    private long serial() throws Exception {
+        File file = WriterBenchmark.tempPdf("serial");
+        long start = System.nanoTime();
+        Writer writer = new Writer(file.getPath(), PageSize.A4, WriterBenchmark.fontPath(), WriterBenchmark.ansiFontPath());
+        writer.setPage(page());
+        writePages(writer, 0, pages);
+        writer.close();
+        long nanos = System.nanoTime() - start;
+        file.delete();
+        return nanos;
+    }
+
+    private long parallel() throws Exception {
+        File file = WriterBenchmark.tempPdf("parallel");
+        List<DocumentPart> parts = new ArrayList<DocumentPart>();
+        for (int from = 0; from < pages; from += pagesPerPart) {
+            final int first = from;
+            final int last = Math.min(from + pagesPerPart, pages);
+            parts.add(new DocumentPart() {
+
+                public void write(Writer writer) throws Exception {
+                    writePages(writer, first, last);
+                }
+            });
+        }
+        long start = System.nanoTime();
+        ParallelDocument document = new ParallelDocument(file.getPath(), PageSize.A4, WriterBenchmark.fontPath(), WriterBenchmark.ansiFontPath());
+        document.setPage(page());
+        document.setThreads(threads);
+        document.write(parts.iterator());
+        long nanos = System.nanoTime() - start;
+        file.delete();
+        return nanos;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int pages = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int pagesPerPart = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        ParallelDocumentBenchmark benchmark = new ParallelDocumentBenchmark(pages, pagesPerPart, threads);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            benchmark.serial();
+            benchmark.parallel();
+        }
+        long serial = 0L;
+        long parallel = 0L;
+        for (int i = 0; i < ROUNDS; i++) {
+            serial += benchmark.serial();
+            parallel += benchmark.parallel();
+        }
+        System.out.println("pages: " + pages + ", pages per part: " + pagesPerPart + ", threads: " + threads);
+        System.out.println(String.format("%-10s %12.1f ms", "serial", serial / 1000000D / ROUNDS));
+        System.out.println(String.format("%-10s %12.1f ms", "parallel", parallel / 1000000D / ROUNDS));
+    }
+}
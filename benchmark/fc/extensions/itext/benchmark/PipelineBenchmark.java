@@ -0,0 +1,115 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.benchmark;
+
+import fc.extensions.itext.smart.AddStatus;
+import fc.extensions.itext.smart.Cell;
+import fc.extensions.itext.smart.CellStyle;
+import fc.extensions.itext.smart.Position;
+import fc.extensions.itext.smart.RowFormatter;
+import fc.extensions.itext.smart.RowPipeline;
+import fc.extensions.itext.smart.SmartTable;
+import fc.extensions.itext.smart.TableMediator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fill the tables of a TableMediator with wrapping rows, built one by one or prepared by a RowPipeline, per cell.
+ *
+ * @author Andersen
+ */
+public final class PipelineBenchmark extends WriterBenchmark {
+
+    private static final int COLUMNS = 4;
+    private static final int ROWS = 30;
+    private static final int TABLES = 2;
+    private static final int PAGES = 10;
+    private static final String NOTE = "shipped in two parcels, the second one is held by the carrier until the invoice is paid";
+
+    private static final RowFormatter<Integer> FORMATTER = new RowFormatter<Integer>() {
+
+        public void format(Integer item, String[] contents) {
+            contents[0] = "2010-01-" + (item % 28 + 1);
+            contents[1] = "Item " + item;
+            contents[2] = NOTE;
+            contents[3] = String.valueOf(item * 7);
+        }
+    };
+
+    private final boolean pipeline;
+    private final CellStyle[] styles = new CellStyle[COLUMNS];
+    private final List<Integer> items = new ArrayList<Integer>();
+
+    public PipelineBenchmark(boolean pipeline) {
+        super(pipeline ? "tableMediator.rowPipeline" : "tableMediator.addRow(Cell...)");
+        this.pipeline = pipeline;
+        CellStyle style = CellStyle.DEFAULT.with(.5F, 8, 1).withFontType(Cell.FontType.NORMAL);
+        for (int i = 0; i < COLUMNS; i++) {
+            styles[i] = style;
+        }
+        for (int i = 0; i < ROWS * TABLES * PAGES; i++) {
+            items.add(i);
+        }
+    }
+
+    private TableMediator newMediator() throws Exception {
+        SmartTable table = new SmartTable(writer, new Position(20F, 20F, 575F, 820F), COLUMNS, ROWS, 8, .5F);
+        table.setCapacity(SmartTable.Capacity.HEIGHT);
+        return new TableMediator(table, TABLES, 5F);
+    }
+
+    @Override
+    public long run() throws Exception {
+        if (pipeline) {
+            RowPipeline<Integer> rows = new RowPipeline<Integer>(items.iterator(), FORMATTER, styles);
+            while (!rows.isExhausted()) {
+                rows.fill(newMediator());
+                writer.newPage();
+            }
+        } else {
+            String[] contents = new String[COLUMNS];
+            Cell[] cells = new Cell[COLUMNS];
+            TableMediator mediator = newMediator();
+            for (Integer item : items) {
+                FORMATTER.format(item, contents);
+                for (int i = 0; i < COLUMNS; i++) {
+                    cells[i] = new Cell(contents[i], styles[i]);
+                }
+                if (mediator.tryAddRow(cells) == AddStatus.FULL) {
+                    writer.newPage();
+                    mediator = newMediator();
+                    mediator.tryAddRow(cells);
+                }
+            }
+            writer.newPage();
+        }
+        return (long) COLUMNS * items.size();
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.benchmark;
+
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.pdf.PdfPTable;
+import fc.extensions.itext.OutputProfile;
+import fc.extensions.itext.Page;
+import fc.extensions.itext.Writer;
+import fc.extensions.itext.smart.Position;
+import java.io.File;
+
+/**
+ * File size against generation time of every OutputProfile, on a sample statement
+ * (page header, frame and a transaction table on every page).
+ *
+ * usage: ProfileBenchmark [documents] [pagesPerDocument]
+ *
+ * fonts are taken from -Dbenchmark.font and -Dbenchmark.ansiFont.
+ *
+ * @author Andersen
+ */
+public final class ProfileBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROWS_PER_PAGE = 40;
+
+    private final int documents;
+    private final int pages;
+
+    private ProfileBenchmark(int documents, int pages) {
+        this.documents = documents;
+        this.pages = pages;
+    }
+
+    private void writeStatement(Writer writer) throws Exception {
+        Page page = new Page();
+        page.getHeader().getPosition().setLeft(20F);
+        page.getHeader().getPosition().setRight(575F);
+        page.getHeader().getPosition().setTop(820F);
+        page.getHeader().getPosition().setBottom(790F);
+        page.getHeader().setFontSize(9F);
+        page.getHeader().setBody(new String[]{"Monthly Statement", "Page"});
+        writer.setPage(page);
+
+        writer.beginPageBackground();
+        writer.drawRectangle(new Position(15F, 15F, 580F, 785F), 1F);
+        writer.writeText("Account 0000-1234-5678", 10, 20F, 760F, 775F);
+        writer.endPageBackground();
+
+        int no = 0;
+        for (int p = 0; p < pages; p++) {
+            PdfPTable table = writer.createTable(5, 550F, new int[]{2, 4, 2, 2, 2});
+            for (int r = 0; r < ROWS_PER_PAGE; r++, no++) {
+                writer.addAnsiCell(table, "2010-01-" + (10 + r % 20), 8, .5F, 1);
+                writer.addCell(table, "Transaction description " + no, 8, .5F, 1);
+                writer.addAnsiCell(table, String.valueOf(no * 7 % 1000), 8, .5F, 1);
+                writer.addAnsiCell(table, String.valueOf(no * 13 % 1000), 8, .5F, 1);
+                writer.addAnsiCell(table, String.valueOf(no * 31 % 100000), 8, .5F, 1);
+            }
+            writer.flushTable(table, 22F, 750F);
+            writer.newPage();
+        }
+    }
+
+    /**
+     * @return {nanos, bytes}
+     */
+    private long[] run(OutputProfile profile) throws Exception {
+        long nanos = 0L;
+        long bytes = 0L;
+        for (int i = 0; i < documents; i++) {
+            File file = WriterBenchmark.tempPdf("profile-" + profile);
+            long start = System.nanoTime();
+            Writer writer = new Writer(file.getPath(), PageSize.A4, WriterBenchmark.fontPath(), WriterBenchmark.ansiFontPath(), profile);
+            writeStatement(writer);
+            writer.close();
+            nanos += System.nanoTime() - start;
+            bytes += file.length();
+            file.delete();
+        }
+        return new long[]{nanos, bytes};
+    }
+
+    public static void main(String[] args) throws Exception {
+        int documents = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int pages = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        ProfileBenchmark benchmark = new ProfileBenchmark(documents, pages);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (OutputProfile profile : OutputProfile.values()) {
+                benchmark.run(profile);
+            }
+        }
+        System.out.println("documents: " + documents + ", pages per document: " + pages);
+        System.out.println(String.format("%-10s %12s %12s %8s", "profile", "ms/doc", "bytes/doc", "size"));
+        long baseBytes = 0L;
+        for (OutputProfile profile : OutputProfile.values()) {
+            long[] result = benchmark.run(profile);
+            if (profile == OutputProfile.DEFAULT) {
+                baseBytes = result[1];
+            }
+            System.out.println(String.format("%-10s %12.3f %12d %7.1f%%", profile,
+                    result[0] / 1000000D / documents, result[1] / documents, 100D * result[1] / baseBytes));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.benchmark;
+
+import fc.extensions.itext.smart.Position;
+import fc.extensions.itext.smart.RowWriter;
+import fc.extensions.itext.smart.SmartTable;
+import fc.extensions.itext.smart.TableMediator;
+
+/**
+ * Fill the tables of a TableMediator cell by cell or row by row, per cell.
+ *
+ * @author Andersen
+ */
+public final class RowBenchmark extends WriterBenchmark {
+
+    private static final int COLUMNS = 5;
+    private static final int ROWS = 40;
+    private static final int TABLES = 2;
+
+    private final boolean rows;
+
+    public RowBenchmark(boolean rows) {
+        super(rows ? "tableMediator.rowWriter" : "tableMediator.addAnsiCell");
+        this.rows = rows;
+    }
+
+    @Override
+    public long run() throws Exception {
+        SmartTable table = new SmartTable(writer, new Position(20F, 20F, 575F, 820F), COLUMNS, ROWS, 9, .5F);
+        TableMediator mediator = new TableMediator(table, TABLES, 5F);
+        if (rows) {
+            RowWriter row = mediator.newRowWriter(true);
+            for (int i = 0; i < ROWS * TABLES; i++) {
+                row.add("2010-01-01").add("Item").add("12").add("3.50").add("42.00").commit();
+            }
+        } else {
+            for (int i = 0; i < ROWS * TABLES; i++) {
+                mediator.addAnsiCell("2010-01-01");
+                mediator.addAnsiCell("Item");
+                mediator.addAnsiCell("12");
+                mediator.addAnsiCell("3.50");
+                mediator.addAnsiCell("42.00");
+            }
+        }
+        writer.newPage();
+        return COLUMNS * ROWS * TABLES;
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.benchmark;
+
+import fc.extensions.itext.smart.Position;
+import fc.extensions.itext.smart.SmartTable;
+
+/**
+ * Fill a SmartTable and flush it, per cell.
+ *
+ * @author Andersen
+ */
+public final class SmartTableBenchmark extends WriterBenchmark {
+
+    private final int columns;
+    private final int rows;
+
+    public SmartTableBenchmark(int columns, int rows) {
+        super("smartTable.fillAndFlush");
+        this.columns = columns;
+        this.rows = rows;
+        param("columns", columns).param("rows", rows);
+    }
+
+    @Override
+    public long run() throws Exception {
+        SmartTable table = new SmartTable(writer, new Position(20F, 20F, 575F, 820F), columns, rows, 9, .5F);
+        int cells = columns * rows;
+        for (int i = 0; i < cells; i++) {
+            table.addAnsiCell("Cell 12345");
+        }
+        table.flush();
+        writer.newPage();
+        return cells;
+    }
+}
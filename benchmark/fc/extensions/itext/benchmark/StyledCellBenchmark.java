@@ -0,0 +1,71 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.benchmark;
+
+import com.itextpdf.text.pdf.PdfPTable;
+import fc.extensions.itext.smart.Cell;
+import fc.extensions.itext.smart.CellStyle;
+
+/**
+ * Writer.addCell of smart.Cell, a shared CellStyle against setters on every cell.
+ *
+ * @author Andersen
+ */
+public final class StyledCellBenchmark extends WriterBenchmark {
+
+    private static final int CELLS = 1000;
+    private static final int COLUMNS = 10;
+    private static final CellStyle STYLE = CellStyle.DEFAULT.with(.5F, 9, 1)
+            .withHorizontalAlignment(Cell.ALIGN_RIGHT).withPadding(3F);
+
+    private final boolean shared;
+
+    public StyledCellBenchmark(boolean shared) {
+        super(shared ? "writer.addCell(Cell).sharedStyle" : "writer.addCell(Cell).setters");
+        this.shared = shared;
+    }
+
+    @Override
+    public long run() throws Exception {
+        PdfPTable table = writer.createTable(COLUMNS, 500F, new int[]{1, 1, 1, 1, 1, 1, 1, 1, 1, 1});
+        for (int i = 0; i < CELLS; i++) {
+            Cell cell;
+            if (shared) {
+                cell = new Cell("Cell 12345", STYLE);
+            } else {
+                cell = new Cell("Cell 12345", .5F, 9);
+                cell.setHorizontalAlignment(Cell.ALIGN_RIGHT);
+                cell.setPadding(3F);
+            }
+            writer.addCell(table, cell);
+        }
+        return CELLS;
+    }
+}
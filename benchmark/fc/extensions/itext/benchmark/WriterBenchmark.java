@@ -0,0 +1,83 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.benchmark;
+
+import com.itextpdf.text.PageSize;
+import fc.extensions.itext.Writer;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A Benchmark writes into a temporary pdf file.
+ *
+ * @author Andersen
+ */
+public abstract class WriterBenchmark extends Benchmark {
+
+    protected Writer writer = null;
+    protected File pdfFile = null;
+
+    protected WriterBenchmark(String name) {
+        super(name);
+    }
+
+    static String fontPath() {
+        return System.getProperty("benchmark.font", "C:\\WINDOWS\\Fonts\\msjh.ttf");
+    }
+
+    static String ansiFontPath() {
+        return System.getProperty("benchmark.ansiFont", "C:\\WINDOWS\\Fonts\\consola.ttf");
+    }
+
+    static File tempPdf(String prefix) throws IOException {
+        File file = File.createTempFile(prefix, ".pdf");
+        file.deleteOnExit();
+        return file;
+    }
+
+    protected Writer newWriter(File file) throws Exception {
+        return new Writer(file.getPath(), PageSize.A4, fontPath(), ansiFontPath());
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        pdfFile = tempPdf(getName());
+        writer = newWriter(pdfFile);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        // a document without pages can't be closed.
+        writer.writeText(" ", 8, 10F, 10F, 20F);
+        writer.close();
+        pdfFile.delete();
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext;
+
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPRow;
+import com.itextpdf.text.pdf.PdfPTable;
+import java.util.Arrays;
+
+/**
+ * A PdfPTable takes a row laid out somewhere else, e.g. by the workers of a RowPipeline,
+ * its height is kept so it's not calculated again.
+ *
+ * It keeps an estimate of the heap its rows retain per row, deleted rows are given back,
+ * the changes are reported to the Writer for its memory budget.
+ *
+ * @author Andersen
+ */
+final class AppendablePdfPTable extends PdfPTable {
+
+    /** a PdfPCell copy with its ColumnText, Phrase and Chunk, measured on a 64-bit JVM. */
+    static final long CELL_BYTES = 560L;
+    static final long CHAR_BYTES = 2L;
+
+    private final Writer owner;
+    private long[] rowBytes = new long[16];
+    private long currentRowBytes = 0L;
+    private long retainedBytes = 0L;
+
+    AppendablePdfPTable(Writer owner, int columns) {
+        super(columns);
+        this.owner = owner;
+    }
+
+    /**
+     * the current row must be completed.
+     */
+    void appendRow(PdfPRow row) {
+        long bytes = 0L;
+        for (PdfPCell cell : row.getCells()) {
+            if (cell != null) {
+                bytes += sizeOf(cell);
+            }
+        }
+        rows.add(row);
+        totalHeight += row.getMaxHeights();
+        currentRowBytes = bytes;
+        retain(bytes);
+        rowCompleted();
+    }
+
+    @Override
+    public void addCell(PdfPCell cell) {
+        int before = rows.size();
+        super.addCell(cell);
+        long bytes = sizeOf(cell);
+        currentRowBytes += bytes;
+        retain(bytes);
+        if (rows.size() > before) {
+            rowCompleted();
+        }
+    }
+
+    @Override
+    public boolean deleteRow(int rowNumber) {
+        if (!super.deleteRow(rowNumber)) {
+            return false;
+        }
+        long bytes = rowBytes[rowNumber];
+        System.arraycopy(rowBytes, rowNumber + 1, rowBytes, rowNumber, rows.size() - rowNumber);
+        rowBytes[rows.size()] = 0L;
+        retain(-bytes);
+        return true;
+    }
+
+    @Override
+    public void deleteBodyRows() {
+        int size = rows.size();
+        super.deleteBodyRows();
+        long bytes = 0L;
+        for (int i = rows.size(); i < size; i++) {
+            bytes += rowBytes[i];
+            rowBytes[i] = 0L;
+        }
+        retain(-bytes);
+    }
+
+    /**
+     * take the cells of the unfinished row back, the row starts over.
+     */
+    PdfPCell[] removeCurrentRow() {
+        int count = 0;
+        for (PdfPCell cell : currentRow) {
+            if (cell != null) {
+                count++;
+            }
+        }
+        PdfPCell[] cells = new PdfPCell[count];
+        count = 0;
+        for (PdfPCell cell : currentRow) {
+            if (cell != null) {
+                cells[count++] = cell;
+            }
+        }
+        Arrays.fill(currentRow, null);
+        currentRowIdx = 0;
+        retain(-currentRowBytes);
+        currentRowBytes = 0L;
+        return cells;
+    }
+
+    /**
+     * the whole table was written, it's not counted any more even if the caller keeps it.
+     */
+    void release() {
+        Arrays.fill(rowBytes, 0L);
+        currentRowBytes = 0L;
+        retain(-retainedBytes);
+    }
+
+    long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    private void rowCompleted() {
+        int row = rows.size() - 1;
+        if (row >= rowBytes.length) {
+            rowBytes = Arrays.copyOf(rowBytes, Math.max(rowBytes.length * 2, row + 1));
+        }
+        rowBytes[row] = currentRowBytes;
+        currentRowBytes = 0L;
+    }
+
+    private void retain(long bytes) {
+        retainedBytes += bytes;
+        owner.retained(bytes);
+    }
+
+    private static long sizeOf(PdfPCell cell) {
+        long bytes = CELL_BYTES;
+        Phrase phrase = cell.getPhrase();
+        if (phrase != null) {
+            for (Element element : phrase) {
+                if (element instanceof Chunk) {
+                    bytes += CHAR_BYTES * ((Chunk) element).getContent().length();
+                }
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.pdf.Barcode128;
+import com.itextpdf.text.pdf.Barcode39;
+import com.itextpdf.text.pdf.BarcodeDatamatrix;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfTemplate;
+import java.util.HashMap;
+
+/**
+ * Draw barcodes as rectangles in the content stream, no Image is created.
+ *
+ * Every code is drawn once into a PdfTemplate (a form XObject) and placed
+ * again by reference when the same code is written in the same document.
+ * An instance belongs to one Writer.
+ *
+ * @author Andersen
+ */
+public final class BarcodeRenderer {
+
+    public static enum Symbology {
+
+        CODE39,
+        CODE128,
+        /** a 2D symbology, QR Code needs a later iText than the one in lib. */
+        DATAMATRIX
+    }
+
+    // the defaults of com.itextpdf.text.pdf.Barcode39, the size of barcodes written before.
+    private static final float MODULE_WIDTH = 0.8F;
+    private static final float CODE39_WIDE_RATIO = 2F;
+    private static final float TEXT_SIZE = 8F;
+    private static final float TEXT_BASELINE = TEXT_SIZE;
+    private static final float BAR_HEIGHT = TEXT_SIZE * 3F;
+    private static final float MATRIX_MODULE_SIZE = 2F;
+
+    private static BaseFont textFont = null;
+
+    private final PdfContentByte cb;
+    private final HashMap<String, PdfTemplate> templates = new HashMap<String, PdfTemplate>();
+
+    public BarcodeRenderer(PdfContentByte cb) {
+        this.cb = cb;
+    }
+
+    private static synchronized BaseFont getTextFont() throws Exception {
+        if (textFont == null) {
+            textFont = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+        }
+        return textFont;
+    }
+
+    /**
+     * write the barcode, its bottom left corner at (leftX, bottomY).
+     */
+    public void write(Symbology symbology, String code, float leftX, float bottomY, float scalePercent, boolean isShowCode, BaseColor color) throws Exception {
+        write(cb, symbology, code, leftX, bottomY, scalePercent, isShowCode, color);
+    }
+
+    /**
+     * @param target where the barcode is placed, e.g. a template.
+     */
+    public void write(PdfContentByte target, Symbology symbology, String code, float leftX, float bottomY, float scalePercent, boolean isShowCode, BaseColor color) throws Exception {
+        PdfTemplate template = getTemplate(symbology, code, isShowCode, color);
+        float scale = scalePercent / 100F;
+        target.addTemplate(template, scale, 0F, 0F, scale, leftX, bottomY);
+    }
+
+    /**
+     * @return the template of the code, drawn on first use.
+     */
+    public PdfTemplate getTemplate(Symbology symbology, String code, boolean isShowCode, BaseColor color) throws Exception {
+        String key = symbology.ordinal() + (isShowCode ? "T" : "F") + color.getRGB() + ':' + code;
+        PdfTemplate template = templates.get(key);
+        if (template == null) {
+            if (symbology == Symbology.DATAMATRIX) {
+                template = drawMatrix(code, color);
+            } else {
+                template = drawLinear(symbology, code, isShowCode, color);
+            }
+            templates.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * @return widths of bars and spaces in modules, starting with a bar.
+     */
+    private static float[] modules(Symbology symbology, String code) {
+        byte[] bars;
+        float wide;
+        if (symbology == Symbology.CODE39) {
+            bars = Barcode39.getBarsCode39(code);
+            wide = CODE39_WIDE_RATIO;
+        } else {
+            bars = Barcode128.getBarsCode128Raw(Barcode128.getRawText(code, false));
+            wide = -1F;
+        }
+        float[] modules = new float[bars.length];
+        for (int i = 0; i < bars.length; i++) {
+            // code 39 gives narrow (0) or wide (1), code 128 gives the modules.
+            modules[i] = wide > 0F ? (bars[i] == 0 ? 1F : wide) : bars[i];
+        }
+        return modules;
+    }
+
+    private PdfTemplate drawLinear(Symbology symbology, String code, boolean isShowCode, BaseColor color) throws Exception {
+        float[] modules = modules(symbology, code);
+        float width = 0F;
+        for (float m : modules) {
+            width += m * MODULE_WIDTH;
+        }
+        float barStartY = 0F;
+        float textStartY = 0F;
+        BaseFont font = null;
+        if (isShowCode) {
+            font = getTextFont();
+            textStartY = -font.getFontDescriptor(BaseFont.DESCENT, TEXT_SIZE);
+            barStartY = textStartY + TEXT_BASELINE;
+            width = Math.max(width, font.getWidthPoint(code, TEXT_SIZE));
+        }
+        PdfTemplate template = cb.createTemplate(width, barStartY + BAR_HEIGHT);
+        template.setColorFill(color);
+        float x = 0F;
+        for (int i = 0; i < modules.length; i++) {
+            float w = modules[i] * MODULE_WIDTH;
+            if (i % 2 == 0) {
+                template.rectangle(x, barStartY, w, BAR_HEIGHT);
+            }
+            x += w;
+        }
+        template.fill();
+        if (font != null) {
+            template.beginText();
+            template.setFontAndSize(font, TEXT_SIZE);
+            template.setTextMatrix(0F, textStartY);
+            template.showText(code);
+            template.endText();
+        }
+        return template;
+    }
+
+    private PdfTemplate drawMatrix(String code, BaseColor color) throws Exception {
+        BarcodeDatamatrix matrix = new BarcodeDatamatrix();
+        int status = matrix.generate(code);
+        if (status != BarcodeDatamatrix.DM_NO_ERROR) {
+            throw new Exception("BarcodeRenderer: cannot encode the data matrix, status: " + status + ", code: " + code);
+        }
+        int columns = matrix.getWidth();
+        int rows = matrix.getHeight();
+        int stride = (columns + 7) / 8;
+        byte[] bits = matrix.getImage();
+        PdfTemplate template = cb.createTemplate(columns * MATRIX_MODULE_SIZE, rows * MATRIX_MODULE_SIZE);
+        template.setColorFill(color);
+        for (int row = 0; row < rows; row++) {
+            float y = (rows - 1 - row) * MATRIX_MODULE_SIZE;
+            int runStart = -1;
+            for (int column = 0; column <= columns; column++) {
+                boolean dark = column < columns && (bits[row * stride + column / 8] & (0x80 >> (column % 8))) != 0;
+                if (dark && runStart < 0) {
+                    runStart = column;
+                } else if (!dark && runStart >= 0) {
+                    // one rectangle per run of dark modules.
+                    template.rectangle(runStart * MATRIX_MODULE_SIZE, y, (column - runStart) * MATRIX_MODULE_SIZE, MATRIX_MODULE_SIZE);
+                    runStart = -1;
+                }
+            }
+        }
+        template.fill();
+        return template;
+    }
+}
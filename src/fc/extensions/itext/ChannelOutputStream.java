@@ -0,0 +1,170 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A buffered OutputStream writes to a FileChannel.
+ *
+ * The buffer is borrowed from a per-thread pool and given back on close,
+ * so a thread writing many documents one after another reuses one buffer.
+ *
+ * @author Andersen
+ */
+public final class ChannelOutputStream extends OutputStream {
+
+    private static final ThreadLocal<ByteBuffer> BUFFER_POOL = new ThreadLocal<ByteBuffer>();
+
+    private final FileOutputStream fileStream;
+    private final FileChannel channel;
+    private final OutputSettings settings;
+    private ByteBuffer buffer = null;
+    private long bytesWritten = 0L;
+    private boolean closed = false;
+
+    public ChannelOutputStream(File file, OutputSettings settings) throws IOException {
+        this.settings = settings == null ? new OutputSettings() : settings;
+        this.fileStream = new FileOutputStream(file);
+        this.channel = fileStream.getChannel();
+        this.buffer = acquireBuffer(this.settings.getBufferSize(), this.settings.isDirectBuffer());
+    }
+
+    private static ByteBuffer acquireBuffer(int size, boolean direct) {
+        ByteBuffer pooled = BUFFER_POOL.get();
+        if (pooled != null && pooled.capacity() >= size && pooled.isDirect() == direct) {
+            BUFFER_POOL.set(null);
+            pooled.clear();
+            pooled.limit(size);
+            return pooled;
+        }
+        return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    private static void releaseBuffer(ByteBuffer buffer) {
+        ByteBuffer pooled = BUFFER_POOL.get();
+        if (pooled == null || pooled.capacity() < buffer.capacity()) {
+            buffer.clear();
+            BUFFER_POOL.set(buffer);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("ChannelOutputStream: stream was closed");
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        buffer.limit(settings.getBufferSize());
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+        bytesWritten++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (len >= buffer.limit()) {
+            // larger than the whole buffer, bypass it.
+            drain();
+            ByteBuffer wrapped = ByteBuffer.wrap(b, off, len);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+        } else {
+            if (len > buffer.remaining()) {
+                drain();
+            }
+            buffer.put(b, off, len);
+        }
+        bytesWritten += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+    }
+
+    /**
+     * flush the buffer, apply the sync policy and close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            drain();
+            switch (settings.getSyncPolicy()) {
+                case DATA:
+                    channel.force(false);
+                    break;
+                case DATA_AND_METADATA:
+                    channel.force(true);
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            closed = true;
+            releaseBuffer(buffer);
+            buffer = null;
+            fileStream.close();
+        }
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public OutputSettings getSettings() {
+        return settings;
+    }
+}
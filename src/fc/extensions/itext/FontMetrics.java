@@ -0,0 +1,123 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext;
+
+import com.itextpdf.text.pdf.BaseFont;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Glyph widths of a BaseFont kept in a primitive table.
+ *
+ * Widths of BMP code points are stored at unit font size (1pt) and loaded
+ * from the BaseFont on first use, the other code points go to the BaseFont directly.
+ * Instances are shared between threads, a racing load just writes the same value twice.
+ *
+ * @author Andersen
+ */
+public final class FontMetrics {
+
+    private static final float UNKNOWN = -1F;
+    private static final int BMP_SIZE = 0x10000;
+    private static final String LETTER_HEIGHT_SAMPLE = "中";
+
+    private final BaseFont baseFont;
+    private final float[] widths = new float[BMP_SIZE];
+    private final float letterHeight;
+    private final AtomicLong loads = new AtomicLong();
+
+    public FontMetrics(BaseFont baseFont) {
+        this.baseFont = baseFont;
+        Arrays.fill(widths, UNKNOWN);
+        this.letterHeight = getWidth(LETTER_HEIGHT_SAMPLE.charAt(0));
+    }
+
+    public BaseFont getBaseFont() {
+        return baseFont;
+    }
+
+    /**
+     * @return width of the code point at font size 1.
+     */
+    public float getWidth(int codePoint) {
+        if (codePoint < BMP_SIZE) {
+            float width = widths[codePoint];
+            if (width == UNKNOWN) {
+                width = baseFont.getWidth(codePoint) * 0.001F;
+                widths[codePoint] = width;
+                loads.incrementAndGet();
+            }
+            return width;
+        }
+        loads.incrementAndGet();
+        return baseFont.getWidth(codePoint) * 0.001F;
+    }
+
+    /**
+     * @return how many widths were loaded from the BaseFont, i.e. the cache misses.
+     */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    public float getWidthPoint(int codePoint, float fontSize) {
+        return getWidth(codePoint) * fontSize;
+    }
+
+    public float getWidthPoint(CharSequence text, float fontSize) {
+        return getWidthPoint(text, 0, text.length(), fontSize);
+    }
+
+    /**
+     * @param start index of the first char.
+     * @param end index after the last char.
+     */
+    public float getWidthPoint(CharSequence text, int start, int end, float fontSize) {
+        float total = 0F;
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i++);
+            if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(text.charAt(i))) {
+                total += getWidth(Character.toCodePoint(c, text.charAt(i++)));
+            } else {
+                total += getWidth(c);
+            }
+        }
+        return total * fontSize;
+    }
+
+    /**
+     * the height of a letter, it's the width of a CJK ideograph.
+     */
+    public float getLetterHeight(float fontSize) {
+        return letterHeight * fontSize;
+    }
+}
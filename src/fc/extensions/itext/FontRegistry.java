@@ -0,0 +1,207 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.pdf.BaseFont;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A thread-safe registry loads every font file once per JVM,
+ * the BaseFont and Font objects are shared by all Writers.
+ *
+ * The shared objects must be treated as read-only.
+ *
+ * @author Andersen
+ */
+public final class FontRegistry {
+
+    private static final FontRegistry DEFAULT = new FontRegistry();
+
+    private final ConcurrentMap<String, FutureTask<BaseFont>> baseFonts = new ConcurrentHashMap<String, FutureTask<BaseFont>>();
+    private final ConcurrentMap<FontKey, Font> fonts = new ConcurrentHashMap<FontKey, Font>();
+    private final ConcurrentMap<BaseFont, FontMetrics> metrics = new ConcurrentHashMap<BaseFont, FontMetrics>();
+
+    public FontRegistry() {
+    }
+
+    /**
+     * @return the process-wide registry, used by Writers unless another one is given.
+     */
+    public static FontRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * get the BaseFont of the path with IDENTITY_H encoding, not embedded.
+     *
+     * @param fontPath path of the font file, a ttc file is given as "path.ttc,index".
+     */
+    public BaseFont getBaseFont(String fontPath) throws Exception {
+        return getBaseFont(fontPath, BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED);
+    }
+
+    public BaseFont getBaseFont(final String fontPath, final String encoding, final boolean embedded) throws Exception {
+        String key = fontPath + '|' + encoding + '|' + embedded;
+        FutureTask<BaseFont> task = baseFonts.get(key);
+        if (task == null) {
+            FutureTask<BaseFont> newTask = new FutureTask<BaseFont>(new Callable<BaseFont>() {
+
+                public BaseFont call() throws Exception {
+                    return loadBaseFont(fontPath, encoding, embedded);
+                }
+            });
+            task = baseFonts.putIfAbsent(key, newTask);
+            if (task == null) {
+                task = newTask;
+                task.run();
+            }
+        }
+        try {
+            return task.get();
+        } catch (ExecutionException ex) {
+            // do not keep the failure, the font file may be fixed later.
+            baseFonts.remove(key, task);
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * get a shared Font, it must not be modified.
+     */
+    public Font getFont(BaseFont baseFont, int fontSize, BaseColor color) {
+        FontKey key = new FontKey(baseFont, fontSize, color);
+        Font font = fonts.get(key);
+        if (font == null) {
+            font = new Font(baseFont, fontSize, Font.UNDEFINED, color);
+            Font existing = fonts.putIfAbsent(key, font);
+            if (existing != null) {
+                font = existing;
+            }
+        }
+        return font;
+    }
+
+    /**
+     * get the shared width table of the BaseFont.
+     */
+    public FontMetrics getMetrics(BaseFont baseFont) {
+        FontMetrics fontMetrics = metrics.get(baseFont);
+        if (fontMetrics == null) {
+            fontMetrics = new FontMetrics(baseFont);
+            FontMetrics existing = metrics.putIfAbsent(baseFont, fontMetrics);
+            if (existing != null) {
+                fontMetrics = existing;
+            }
+        }
+        return fontMetrics;
+    }
+
+    /**
+     * drop all loaded fonts, Writers already created keep their references.
+     */
+    public void clear() {
+        baseFonts.clear();
+        fonts.clear();
+        metrics.clear();
+    }
+
+    private static BaseFont loadBaseFont(String fontPath, String encoding, boolean embedded) throws Exception {
+        String filePath = fontPath;
+        int ttcIndex = fontPath.toLowerCase().indexOf(".ttc,");
+        if (ttcIndex > 0) {
+            filePath = fontPath.substring(0, ttcIndex + 4);
+        }
+        File file = new File(filePath);
+        if (!file.isFile()) {
+            // built-in fonts (e.g. Helvetica) or resources found by iText itself.
+            return BaseFont.createFont(fontPath, encoding, embedded, false, null, null);
+        }
+        return BaseFont.createFont(fontPath, encoding, embedded, false, readFile(file), null);
+    }
+
+    /**
+     * read the whole font file at once, BaseFont keeps the bytes.
+     */
+    private static byte[] readFile(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            in.readFully(bytes);
+            return bytes;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static final class FontKey {
+
+        private final BaseFont baseFont;
+        private final int fontSize;
+        private final BaseColor color;
+
+        FontKey(BaseFont baseFont, int fontSize, BaseColor color) {
+            this.baseFont = baseFont;
+            this.fontSize = fontSize;
+            this.color = color;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FontKey)) {
+                return false;
+            }
+            FontKey other = (FontKey) obj;
+            return baseFont == other.baseFont && fontSize == other.fontSize
+                    && (color == null ? other.color == null : color.equals(other.color));
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(baseFont);
+            hash = 31 * hash + fontSize;
+            hash = 31 * hash + (color == null ? 0 : color.hashCode());
+            return hash;
+        }
+    }
+}
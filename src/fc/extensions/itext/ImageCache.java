@@ -0,0 +1,157 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext;
+
+import com.itextpdf.text.Image;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe cache of decoded images keyed by path, the least recently used
+ * images are evicted once the cached bytes exceed the limit.
+ *
+ * The cached Image is a prototype, every placement gets a copy of it (same data,
+ * same serial id), so a document embeds each image once and Writers on other
+ * threads don't share position or scale.
+ *
+ * @author Andersen
+ */
+public final class ImageCache {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+
+    private static final ImageCache DEFAULT = new ImageCache(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> images = new LinkedHashMap<String, Entry>(16, 0.75F, true);
+    private long cachedBytes = 0L;
+    private long hits = 0L;
+    private long misses = 0L;
+
+    public ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the process-wide cache, used by Writers unless another one is given.
+     */
+    public static ImageCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return a copy of the cached image, it could be positioned and scaled freely.
+     */
+    public Image getImage(String imagePath) throws Exception {
+        Image prototype = null;
+        synchronized (this) {
+            Entry entry = images.get(imagePath);
+            if (entry != null) {
+                hits++;
+                prototype = entry.image;
+            } else {
+                misses++;
+            }
+        }
+        if (prototype == null) {
+            // decoded outside the lock, a racing thread may decode the same file once more.
+            prototype = Image.getInstance(imagePath);
+            put(imagePath, prototype);
+        }
+        return Image.getInstance(prototype);
+    }
+
+    private synchronized void put(String imagePath, Image image) {
+        long bytes = sizeOf(image);
+        if (bytes > maxBytes) {
+            return;
+        }
+        Entry previous = images.put(imagePath, new Entry(image, bytes));
+        if (previous != null) {
+            cachedBytes -= previous.bytes;
+        }
+        cachedBytes += bytes;
+        Iterator<Map.Entry<String, Entry>> it = images.entrySet().iterator();
+        while (cachedBytes > maxBytes && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            cachedBytes -= eldest.bytes;
+            it.remove();
+        }
+    }
+
+    /**
+     * the retained size, the raw data or the decoded pixels when there is no raw data.
+     */
+    static long sizeOf(Image image) {
+        byte[] raw = image.getRawData();
+        if (raw != null) {
+            return raw.length;
+        }
+        return (long) (image.getWidth() * image.getHeight() * 4F);
+    }
+
+    public synchronized void clear() {
+        images.clear();
+        cachedBytes = 0L;
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public synchronized int size() {
+        return images.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private static final class Entry {
+
+        private final Image image;
+        private final long bytes;
+
+        Entry(Image image, long bytes) {
+            this.image = image;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext;
+
+/**
+ * Break text into lines by the glyph widths of a FontMetrics.
+ *
+ * Latin text is broken at spaces (a word longer than the line is broken by char),
+ * CJK text could be broken between any two ideographs, '\n' always breaks.
+ * A line doesn't start with closing punctuation (，。、）」...) or end with opening punctuation (（「...).
+ * The result is kept as offsets in reusable arrays, so an instance should not be
+ * shared between threads.
+ *
+ * @author Andersen
+ */
+public final class LineBreaker {
+
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int lineCount = 0;
+
+    public LineBreaker() {
+    }
+
+    /**
+     * @return the number of lines.
+     */
+    public int breakLines(CharSequence text, FontMetrics metrics, float fontSize, float maxWidth) {
+        lineCount = 0;
+        int length = text.length();
+        float maxUnitWidth = maxWidth / fontSize;
+
+        int lineStart = 0;
+        float lineWidth = 0F;
+        // the last position the line could be broken, and the width before it.
+        int breakAt = -1;
+        float widthAtBreak = 0F;
+        int previous = -1;
+        int previousAt = -1;
+
+        int i = 0;
+        while (i < length) {
+            int cp = Character.codePointAt(text, i);
+            int next = i + Character.charCount(cp);
+
+            if (cp == '\n') {
+                addLine(lineStart, i, text);
+                lineStart = next;
+                lineWidth = 0F;
+                breakAt = -1;
+                previous = -1;
+                previousAt = -1;
+                i = next;
+                continue;
+            }
+
+            boolean space = isSpace(cp);
+            if (i > lineStart && !space && (isSpace(previous) || isIdeographic(cp) || isIdeographic(previous))
+                    && !isClosing(cp) && !isOpening(previous)) {
+                breakAt = i;
+                widthAtBreak = lineWidth;
+            }
+
+            // the glyph is measured before it's put on the line, a break could leave the rest too wide still.
+            float width = metrics.getWidth(cp);
+            while (!space && lineWidth + width > maxUnitWidth && i > lineStart) {
+                if (breakAt > lineStart) {
+                    addLine(lineStart, breakAt, text);
+                    lineStart = breakAt;
+                    lineWidth -= widthAtBreak;
+                } else if (isClosing(cp) && previousAt > lineStart) {
+                    // the closing punctuation takes the char before it to the next line.
+                    addLine(lineStart, previousAt, text);
+                    lineStart = previousAt;
+                    lineWidth = metrics.getWidth(previous);
+                } else {
+                    addLine(lineStart, i, text);
+                    lineStart = i;
+                    lineWidth = 0F;
+                }
+                breakAt = -1;
+            }
+            lineWidth += width;
+            previous = cp;
+            previousAt = i;
+            i = next;
+        }
+        if (lineStart < length || lineCount == 0) {
+            addLine(lineStart, length, text);
+        }
+        return lineCount;
+    }
+
+    private void addLine(int start, int end, CharSequence text) {
+        while (end > start && isSpace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (lineCount == starts.length) {
+            int[] newStarts = new int[lineCount * 2];
+            int[] newEnds = new int[lineCount * 2];
+            System.arraycopy(starts, 0, newStarts, 0, lineCount);
+            System.arraycopy(ends, 0, newEnds, 0, lineCount);
+            starts = newStarts;
+            ends = newEnds;
+        }
+        starts[lineCount] = start;
+        ends[lineCount] = end;
+        lineCount++;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return index of the first char of the line.
+     */
+    public int getLineStart(int line) {
+        return starts[line];
+    }
+
+    /**
+     * @return index after the last char of the line, trailing spaces are excluded.
+     */
+    public int getLineEnd(int line) {
+        return ends[line];
+    }
+
+    private static boolean isSpace(int cp) {
+        return cp == ' ' || cp == '\t' || cp == '\r' || cp == 0x3000;
+    }
+
+    /**
+     * a line doesn't start with them.
+     */
+    static boolean isClosing(int cp) {
+        switch (cp) {
+            case 0x3001: // 、
+            case 0x3002: // 。
+            case 0x3009: // 〉
+            case 0x300B: // 》
+            case 0x300D: // 」
+            case 0x300F: // 』
+            case 0x3011: // 】
+            case 0x3015: // 〕
+            case 0x3017: // 〗
+            case 0x30FB: // ・
+            case 0x30FC: // ー
+            case 0xFF01: // ！
+            case 0xFF09: // ）
+            case 0xFF0C: // ，
+            case 0xFF0E: // ．
+            case 0xFF1A: // ：
+            case 0xFF1B: // ；
+            case 0xFF1F: // ？
+            case 0xFF3D: // ］
+            case 0xFF5D: // ｝
+            case 0xFF61: // ｡
+            case 0xFF63: // ｣
+            case 0xFF64: // ､
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * a line doesn't end with them.
+     */
+    static boolean isOpening(int cp) {
+        switch (cp) {
+            case 0x3008: // 〈
+            case 0x300A: // 《
+            case 0x300C: // 「
+            case 0x300E: // 『
+            case 0x3010: // 【
+            case 0x3014: // 〔
+            case 0x3016: // 〖
+            case 0xFF08: // （
+            case 0xFF3B: // ［
+            case 0xFF5B: // ｛
+            case 0xFF62: // ｢
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * CJK ideographs, kana, hangul and fullwidth forms, a line could be broken around them.
+     */
+    static boolean isIdeographic(int cp) {
+        return (cp >= 0x2E80 && cp <= 0x9FFF)
+                || (cp >= 0xAC00 && cp <= 0xD7AF)
+                || (cp >= 0xF900 && cp <= 0xFAFF)
+                || (cp >= 0xFF00 && cp <= 0xFFEF)
+                || (cp >= 0x20000 && cp <= 0x2FFFF);
+    }
+}
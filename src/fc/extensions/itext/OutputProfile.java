@@ -0,0 +1,83 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext;
+
+import com.itextpdf.text.pdf.PdfStream;
+import com.itextpdf.text.pdf.PdfWriter;
+
+/**
+ * Named PdfWriter settings, trading generation time for file size.
+ *
+ * @author Andersen
+ */
+public enum OutputProfile {
+
+    /** iText defaults. */
+    DEFAULT(PdfStream.DEFAULT_COMPRESSION, false, PdfWriter.VERSION_1_4),
+    /** fastest deflate level, for online preview. */
+    FAST(1, false, PdfWriter.VERSION_1_4),
+    /** best compression with object and cross-reference streams (PDF 1.5), for email. */
+    COMPACT(PdfStream.BEST_COMPRESSION, true, PdfWriter.VERSION_1_5),
+    /** best compression with a plain cross-reference table, readable by old readers and archive validators. */
+    ARCHIVE(PdfStream.BEST_COMPRESSION, false, PdfWriter.VERSION_1_4);
+
+    private final int compressionLevel;
+    private final boolean fullCompression;
+    private final char pdfVersion;
+
+    private OutputProfile(int compressionLevel, boolean fullCompression, char pdfVersion) {
+        this.compressionLevel = compressionLevel;
+        this.fullCompression = fullCompression;
+        this.pdfVersion = pdfVersion;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public boolean isFullCompression() {
+        return fullCompression;
+    }
+
+    public char getPdfVersion() {
+        return pdfVersion;
+    }
+
+    /**
+     * it must be applied before the document is opened.
+     */
+    void apply(PdfWriter pdfWriter) {
+        pdfWriter.setPdfVersion(pdfVersion);
+        pdfWriter.setCompressionLevel(compressionLevel);
+        if (fullCompression) {
+            pdfWriter.setFullCompression();
+        }
+    }
+}
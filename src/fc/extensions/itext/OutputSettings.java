@@ -0,0 +1,115 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext;
+
+/**
+ * Output settings of a Writer, e.g. buffer size, sync policy and profile.
+ *
+ * @author Andersen
+ */
+public final class OutputSettings {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final int MIN_BUFFER_SIZE = 4 * 1024;
+
+    /**
+     * What to do with the file when the writer is closed.
+     */
+    public static enum SyncPolicy {
+
+        /** leave it to the OS, same as FileOutputStream. */
+        NONE,
+        /** force file content to the storage device. */
+        DATA,
+        /** force file content and metadata to the storage device. */
+        DATA_AND_METADATA
+    }
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private boolean directBuffer = false;
+    private SyncPolicy syncPolicy = SyncPolicy.NONE;
+    private OutputProfile profile = OutputProfile.DEFAULT;
+
+    public OutputSettings() {
+    }
+
+    public OutputSettings(OutputProfile profile) {
+        setProfile(profile);
+    }
+
+    public OutputSettings(int bufferSize, SyncPolicy syncPolicy) {
+        setBufferSize(bufferSize);
+        setSyncPolicy(syncPolicy);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = Math.max(bufferSize, MIN_BUFFER_SIZE);
+    }
+
+    public boolean isDirectBuffer() {
+        return directBuffer;
+    }
+
+    /**
+     * use a direct ByteBuffer, it saves a copy on every channel write.
+     */
+    public void setDirectBuffer(boolean directBuffer) {
+        this.directBuffer = directBuffer;
+    }
+
+    public SyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    public void setSyncPolicy(SyncPolicy syncPolicy) {
+        this.syncPolicy = syncPolicy == null ? SyncPolicy.NONE : syncPolicy;
+    }
+
+    public OutputProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * compression and pdf version of the file, see OutputProfile.
+     */
+    public void setProfile(OutputProfile profile) {
+        this.profile = profile == null ? OutputProfile.DEFAULT : profile;
+    }
+
+    @Override
+    public String toString() {
+        return "[bufferSize: " + bufferSize + " ,directBuffer: " + directBuffer + " ,syncPolicy: " + syncPolicy + " ,profile: " + profile + "]";
+    }
+}
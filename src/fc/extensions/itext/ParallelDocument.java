@@ -0,0 +1,294 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfImportedPage;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSmartCopy;
+import com.itextpdf.text.pdf.PdfTemplate;
+import fc.extensions.itext.metrics.MetricsListener;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write a single large document by parts: every part (a range of pages) is rendered by its own Writer
+ * on a worker into memory, the parts are merged in order into the pdf file by a PdfSmartCopy,
+ * so identical resources of the parts (images, backgrounds) are written once.
+ *
+ * The page header is laid out by every part, the page numbers and the page count are written
+ * while merging, so they count the pages of the whole document.
+ *
+ * <pre>
+ * ParallelDocument document = new ParallelDocument("statement.pdf", PageSize.A4, fontPath, ansiFontPath);
+ * document.setPage(page);
+ * document.write(parts.iterator());
+ * </pre>
+ *
+ * The parts are read by the calling thread, at most maxInFlight of them are rendered and not merged yet.
+ *
+ * @author Andersen
+ */
+public final class ParallelDocument {
+
+    private final String pdfFile;
+    private final Rectangle pageSize;
+    private final String fontPath;
+    private final String ansiFontPath;
+    private FontRegistry fontRegistry = FontRegistry.getDefault();
+    private OutputSettings outputSettings = new OutputSettings();
+    private Page page = null;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxInFlight = Runtime.getRuntime().availableProcessors() * 2;
+    private MetricsListener metricsListener = null;
+
+    public ParallelDocument(String pdfFile, Rectangle pageSize, String fontPath, String ansiFontPath) {
+        this.pdfFile = pdfFile;
+        this.pageSize = pageSize;
+        this.fontPath = fontPath;
+        this.ansiFontPath = ansiFontPath;
+    }
+
+    public FontRegistry getFontRegistry() {
+        return fontRegistry;
+    }
+
+    public void setFontRegistry(FontRegistry fontRegistry) {
+        this.fontRegistry = fontRegistry;
+    }
+
+    public OutputSettings getOutputSettings() {
+        return outputSettings;
+    }
+
+    /**
+     * @param outputSettings the profile is applied to every part, buffer and sync policy to the pdf file.
+     */
+    public void setOutputSettings(OutputSettings outputSettings) {
+        this.outputSettings = outputSettings;
+    }
+
+    public Page getPage() {
+        return page;
+    }
+
+    /**
+     * @param page header and footer of every page, set to the Writer of every part.
+     */
+    public void setPage(Page page) {
+        this.page = page;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(threads, 1);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @param maxInFlight how many parts could be rendered and not merged yet, they're kept in memory.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(maxInFlight, 1);
+    }
+
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * @param metricsListener given to the Writer of every part, it's called by the workers concurrently.
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * render the parts and merge them in order, the pdf file is deleted if a part fails.
+     *
+     * @return pages of the document.
+     */
+    public int write(Iterator<? extends DocumentPart> parts) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new PartThreadFactory());
+        ArrayDeque<Future<RenderedPart>> inFlight = new ArrayDeque<Future<RenderedPart>>();
+        Document document = new Document(pageSize);
+        ChannelOutputStream outputStream = new ChannelOutputStream(new File(pdfFile), outputSettings);
+        boolean done = false;
+        try {
+            PdfCopy copy = new PdfSmartCopy(document, outputStream);
+            outputSettings.getProfile().apply(copy);
+            document.open();
+            Writer layout = null;
+            PdfTemplate pageCount = null;
+            int pages = 0;
+            int index = 0;
+            while (true) {
+                while (inFlight.size() < maxInFlight && parts.hasNext()) {
+                    inFlight.add(executor.submit(new RenderTask(parts.next(), index++)));
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+                RenderedPart part = take(inFlight.poll());
+                if (layout == null) {
+                    layout = part.writer;
+                }
+                PdfReader reader = new PdfReader(part.content);
+                for (int i = 1; i <= reader.getNumberOfPages(); i++) {
+                    PdfImportedPage imported = copy.getImportedPage(reader, i);
+                    pages++;
+                    if (page != null) {
+                        PdfCopy.PageStamp stamp = copy.createPageStamp(imported);
+                        if (pageCount == null) {
+                            pageCount = layout.createPageCountTemplate(stamp.getOverContent());
+                        }
+                        layout.writePageNumber(stamp.getOverContent(), pages, pageCount);
+                        stamp.alterContents();
+                    }
+                    copy.addPage(imported);
+                }
+                copy.freeReader(reader);
+            }
+            if (pages == 0) {
+                throw new Exception("ParallelDocument: the document has no pages");
+            }
+            if (pageCount != null) {
+                layout.writePageCount(pageCount, pages);
+            }
+            document.close();
+            done = true;
+            return pages;
+        } finally {
+            executor.shutdownNow();
+            if (!done) {
+                for (Future<RenderedPart> future : inFlight) {
+                    future.cancel(true);
+                }
+                try {
+                    document.close();
+                } catch (Exception ignored) {
+                    // the document may have no pages.
+                }
+            }
+            outputStream.close();
+            if (!done) {
+                new File(pdfFile).delete();
+            }
+        }
+    }
+
+    private static RenderedPart take(Future<RenderedPart> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new Exception("ParallelDocument: a part failed", cause);
+        }
+    }
+
+    private static final class RenderedPart {
+
+        private final Writer writer;
+        private final byte[] content;
+
+        private RenderedPart(Writer writer, byte[] content) {
+            this.writer = writer;
+            this.content = content;
+        }
+    }
+
+    private final class RenderTask implements Callable<RenderedPart> {
+
+        private final DocumentPart part;
+        private final int index;
+
+        private RenderTask(DocumentPart part, int index) {
+            this.part = part;
+            this.index = index;
+        }
+
+        public RenderedPart call() throws Exception {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            Writer writer = new Writer(content, pageSize, fontRegistry, fontPath, ansiFontPath, outputSettings.getProfile());
+            writer.setMetricsListener(metricsListener);
+            boolean done = false;
+            try {
+                if (page != null) {
+                    writer.setPage(page);
+                }
+                part.write(writer);
+                writer.close();
+                done = true;
+            } catch (Exception ex) {
+                throw new Exception("ParallelDocument: part " + index + " failed, " + ex.getMessage(), ex);
+            } finally {
+                if (!done) {
+                    try {
+                        writer.close();
+                    } catch (Exception ignored) {
+                        // the part may have no pages.
+                    }
+                }
+            }
+            return new RenderedPart(writer, content.toByteArray());
+        }
+    }
+
+    private static final class PartThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "document-part-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -40,22 +40,27 @@ import com.itextpdf.text.Image;
 import com.itextpdf.text.PageSize;
 import com.itextpdf.text.Phrase;
 import com.itextpdf.text.Rectangle;
-import com.itextpdf.text.pdf.Barcode39;
 import com.itextpdf.text.pdf.BaseFont;
 import com.itextpdf.text.pdf.PdfAnnotation;
 import com.itextpdf.text.pdf.PdfBorderDictionary;
 import com.itextpdf.text.pdf.PdfContentByte;
 import com.itextpdf.text.pdf.PdfFormField;
 import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPRow;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfPageEventHelper;
 import com.itextpdf.text.pdf.PdfTemplate;
 import com.itextpdf.text.pdf.PdfWriter;
 import fc.extensions.itext.smart.Cell;
+import fc.extensions.itext.smart.CellStyle;
 import fc.extensions.itext.smart.Position;
+import fc.extensions.itext.smart.StyleRegistry;
+import fc.extensions.itext.metrics.MetricsAdapter;
+import fc.extensions.itext.metrics.MetricsListener;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.util.HashMap;
+import java.util.HashSet;
 import org.apache.commons.lang.StringUtils;
 
 
@@ -73,43 +78,143 @@ public final class Writer extends PdfPageEventHelper {
     private BaseColor baseColor = null;
     private File pdfFile = null;
     private PdfWriter pdfWriter = null;
+    private ChannelOutputStream outputStream = null;
+    private ByteArrayOutputStream partStream = null;
+    private OutputProfile outputProfile = null;
     private PdfContentByte pdfWriterCB = null;
+    private PdfContentByte canvas = null;
+    private PdfTemplate pageBackground = null;
     private BaseFont baseFont = null;
     private BaseFont engBaseFont = null;
     private PdfTemplate pageHeadTemplate = null;
+    private PdfTemplate pageBand = null;
+    private int pageNumberSize = 0;
+    private float pageNumberX = 0F;
+    private float pageNumberY = 0F;
+    private float pageCountX = 0F;
+    private boolean pageNumbersDeferred = false;
+    private FontRegistry fontRegistry = null;
+    private FontMetrics metrics = null;
+    private FontMetrics ansiMetrics = null;
+    private LineBreaker lineBreaker = new LineBreaker();
+    private MetricsListener metricsListener = MetricsAdapter.NONE;
+    private ImageCache imageCache = ImageCache.getDefault();
+    private BarcodeRenderer barcodeRenderer = null;
     private Page pageObject = null;
+    private long memoryBudget = 0L;
+    private BudgetPolicy budgetPolicy = BudgetPolicy.FLUSH;
+    private long retainedBytes = 0L;
+    private long imageBytes = 0L;
+    private HashSet<String> placedImages = new HashSet<String>();
     private HashMap<Integer, Font> fontMap = new HashMap<Integer, Font>();
     private HashMap<Integer, Font> ansiFontMap = new HashMap<Integer, Font>();
+    private HashMap<CellStyle, PdfPCell> cellPrototypes = new HashMap<CellStyle, PdfPCell>();
 
     public Writer(String pdfFile, Rectangle pageSize, String fontPath, String ansiFontPath) throws Exception {
-        this.pdfFile = new File(pdfFile);
+        this(pdfFile, pageSize, fontPath, ansiFontPath, new OutputSettings());
+    }
+
+    /**
+     * @param profile e.g. OutputProfile.COMPACT for email, OutputProfile.FAST for preview.
+     */
+    public Writer(String pdfFile, Rectangle pageSize, String fontPath, String ansiFontPath, OutputProfile profile) throws Exception {
+        this(pdfFile, pageSize, fontPath, ansiFontPath, new OutputSettings(profile));
+    }
+
+    /**
+     * @param outputSettings buffer size and sync policy of the pdf file, it could be tuned per job, null for the defaults.
+     */
+    public Writer(String pdfFile, Rectangle pageSize, String fontPath, String ansiFontPath, OutputSettings outputSettings) throws Exception {
+        this(pdfFile, pageSize, FontRegistry.getDefault(), fontPath, ansiFontPath, outputSettings);
+    }
+
+    /**
+     * @param fontRegistry fonts are loaded once by the registry and shared with other Writers.
+     */
+    public Writer(String pdfFile, Rectangle pageSize, FontRegistry fontRegistry, String fontPath, String ansiFontPath, OutputSettings outputSettings) throws Exception {
+        this(new File(pdfFile), null, pageSize, fontRegistry, fontPath, ansiFontPath, outputSettings);
+    }
+
+    /**
+     * A part of a ParallelDocument, written in memory, its pages are numbered when the parts are merged.
+     */
+    Writer(ByteArrayOutputStream partStream, Rectangle pageSize, FontRegistry fontRegistry, String fontPath, String ansiFontPath, OutputProfile profile) throws Exception {
+        this(null, partStream, pageSize, fontRegistry, fontPath, ansiFontPath, new OutputSettings(profile));
+        pageNumbersDeferred = true;
+    }
+
+    private Writer(File pdfFile, ByteArrayOutputStream partStream, Rectangle pageSize, FontRegistry fontRegistry, String fontPath, String ansiFontPath, OutputSettings outputSettings) throws Exception {
+        if (outputSettings == null) {
+            outputSettings = new OutputSettings();
+        }
+        this.pdfFile = pdfFile;
+        this.partStream = partStream;
+        this.fontRegistry = fontRegistry;
+        baseColor = BaseColor.BLACK;
+        baseFont = fontRegistry.getBaseFont(fontPath);
+        engBaseFont = fontRegistry.getBaseFont(ansiFontPath);
+        metrics = fontRegistry.getMetrics(baseFont);
+        ansiMetrics = fontRegistry.getMetrics(engBaseFont);
 
         document = new Document(pageSize);
-        pdfWriter = PdfWriter.getInstance(document, new FileOutputStream(this.pdfFile));
+        if (partStream == null) {
+            outputStream = new ChannelOutputStream(this.pdfFile, outputSettings);
+            pdfWriter = PdfWriter.getInstance(document, outputStream);
+        } else {
+            pdfWriter = PdfWriter.getInstance(document, partStream);
+        }
+        outputProfile = outputSettings.getProfile();
+        outputProfile.apply(pdfWriter);
         pdfWriter.setPageEvent(this);
         document.open();
         pdfWriterCB = pdfWriter.getDirectContent();
-        baseColor = BaseColor.BLACK;
-        baseFont = BaseFont.createFont(fontPath, BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED);
-        engBaseFont = BaseFont.createFont(ansiFontPath, BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED);
+        canvas = pdfWriterCB;
+        barcodeRenderer = new BarcodeRenderer(pdfWriterCB);
+    }
+
+    /**
+     * @param fontType Cell.FontType.DBCS or Cell.FontType.NORMAL (ANSI).
+     * @return the shared Font in the base color, it must be treated as read-only.
+     */
+    public Font getFont(int fontSize, int fontType) {
+        return fontType == Cell.FontType.DBCS ? getFont(fontSize) : getAnsiFont(fontSize);
     }
 
     private Font getFont(int fontSize) {
-        if (!fontMap.containsKey(fontSize)) {
-            fontMap.put(fontSize, new Font(baseFont, fontSize, Font.UNDEFINED, baseColor));
+        Font font = fontMap.get(fontSize);
+        metricsListener.fontCacheAccess(font != null);
+        if (font == null) {
+            font = fontRegistry.getFont(baseFont, fontSize, baseColor);
+            fontMap.put(fontSize, font);
         }
-        return fontMap.get(fontSize);
+        return font;
     }
 
     private Font getAnsiFont(int fontSize) {
-        if (!ansiFontMap.containsKey(fontSize)) {
-            ansiFontMap.put(fontSize, new Font(engBaseFont, fontSize, Font.UNDEFINED, baseColor));
+        Font font = ansiFontMap.get(fontSize);
+        metricsListener.fontCacheAccess(font != null);
+        if (font == null) {
+            font = fontRegistry.getFont(engBaseFont, fontSize, baseColor);
+            ansiFontMap.put(fontSize, font);
         }
-        return ansiFontMap.get(fontSize);
+        return font;
+    }
+
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * @param metricsListener receives the metrics of this Writer and its tables, null to disable.
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener == null ? MetricsAdapter.NONE : metricsListener;
     }
 
     public void setDebug() {
         this.baseColor = BaseColor.RED;
+        fontMap.clear();
+        ansiFontMap.clear();
     }
 
     public void setPage(Page page) throws Exception {
@@ -117,57 +222,105 @@ public final class Writer extends PdfPageEventHelper {
             throw new Exception("ITextClient: Cannot do setPageObject() after first page !!!");
         }
         this.pageObject = page;
-        float width = baseFont.getWidthPoint(CONTENT_OF_PAGE_COUNT, page.getHeader().getFontSize());
-        float height = page.getHeader().getPosition().getHeight();
-        pageHeadTemplate = pdfWriter.getDirectContent().createTemplate(width, height);
-        pageHeadTemplate.setBoundingBox(new Rectangle(0F, 0F, width, height));
+        pageHeadTemplate = createPageCountTemplate(pdfWriter.getDirectContent());
+
+        // the static lines of header and footer are laid out once, only the page number is written per page.
+        Rectangle pageSize = document.getPageSize();
+        pageBand = pdfWriter.getDirectContent().createTemplate(pageSize.getWidth(), pageSize.getHeight());
+        pageNumberSize = 0;
+        layoutBand(page.getHeader().getPosition(), (int) page.getHeader().getFontSize(), page.getHeader().getBody(), true);
+        layoutBand(page.getFooter().getPosition(), (int) page.getFooter().getFontSize(), page.getFooter().getBody(), false);
+    }
+
+    /**
+     * Write the lines right aligned from the top of the position into the page band,
+     * the last line of the header keeps a slot for "page number/page count".
+     */
+    private void layoutBand(Position position, int fontSize, String[] body, boolean pageNumber) {
+        if (body == null || body.length == 0) {
+            return;
+        }
+        float urx = position.getRight();
+        float alingY = position.getTop();
+        float letterHeight = metrics.getLetterHeight(fontSize);
+        pageBand.beginText();
+        pageBand.setFontAndSize(baseFont, fontSize);
+        for (int i = 0; i < body.length; i++) {
+            alingY = alingY - letterHeight;
+            if (pageNumber && i == body.length - 1) {
+                float countWidth = metrics.getWidthPoint(CONTENT_OF_PAGE_COUNT, fontSize);
+                float slashWidth = metrics.getWidthPoint("/", fontSize);
+                // six digits wide, as the page number was padded to six characters.
+                float numberWidth = 6 * Math.max(metrics.getWidthPoint(" ", fontSize), metrics.getWidthPoint("0", fontSize));
+                pageCountX = urx - countWidth;
+                pageNumberX = pageCountX - slashWidth;
+                pageNumberY = alingY;
+                pageNumberSize = fontSize;
+                pageBand.showTextAligned(PdfContentByte.ALIGN_RIGHT, "/", pageCountX, alingY, 0);
+                pageBand.showTextAligned(PdfContentByte.ALIGN_RIGHT, body[i], pageNumberX - numberWidth, alingY, 0);
+            } else {
+                pageBand.showTextAligned(PdfContentByte.ALIGN_RIGHT, body[i], urx, alingY, 0);
+            }
+        }
+        pageBand.endText();
+    }
+
+    /**
+     * @return the template the page count is written into when the document is closed, null without a page header.
+     */
+    PdfTemplate createPageCountTemplate(PdfContentByte cb) {
+        if (pageObject == null) {
+            return null;
+        }
+        float width = metrics.getWidthPoint(CONTENT_OF_PAGE_COUNT, pageObject.getHeader().getFontSize());
+        float height = pageObject.getHeader().getPosition().getHeight();
+        PdfTemplate template = cb.createTemplate(width, height);
+        template.setBoundingBox(new Rectangle(0F, 0F, width, height));
+        return template;
+    }
+
+    void writePageCount(PdfTemplate template, int pageCount) {
+        template.beginText();
+        template.setFontAndSize(baseFont, pageObject.getHeader().getFontSize());
+        template.showTextAligned(PdfContentByte.ALIGN_RIGHT, StringUtils.right(CONTENT_OF_PAGE_COUNT + pageCount, 6), template.getWidth(), 0F, 0);
+        template.endText();
+    }
+
+    /**
+     * write "page number/" and put the page count template after it, on the slot of the page header.
+     */
+    void writePageNumber(PdfContentByte cb, int pageNumber, PdfTemplate pageCount) {
+        if (pageNumberSize == 0) {
+            return;
+        }
+        cb.beginText();
+        cb.setFontAndSize(baseFont, pageNumberSize);
+        cb.showTextAligned(PdfContentByte.ALIGN_RIGHT, String.valueOf(pageNumber), pageNumberX, pageNumberY, 0);
+        cb.endText();
+        cb.addTemplate(pageCount, pageCountX, pageNumberY);
     }
 
     @Override
     public void onCloseDocument(PdfWriter writer, Document document) {
-        if (pageObject == null) {
+        if (pageObject == null || pageNumbersDeferred) {
             return;
         }
-        pageHeadTemplate.beginText();
-        pageHeadTemplate.setFontAndSize(baseFont, pageObject.getHeader().getFontSize());
-        pageHeadTemplate.showTextAligned(PdfContentByte.ALIGN_RIGHT, StringUtils.right(CONTENT_OF_PAGE_COUNT + (writer.getCurrentPageNumber() - 1), 6), pageHeadTemplate.getWidth(), 0F, 0);
-        pageHeadTemplate.endText();
+        writePageCount(pageHeadTemplate, writer.getCurrentPageNumber() - 1);
     }
 
     @Override
     public void onEndPage(PdfWriter writer, Document document) {
+        metricsListener.pageEmitted(writer.getPageNumber());
+        if (pageBackground != null) {
+            // an empty page doesn't end, so it won't be kept for its background only.
+            writer.getDirectContentUnder().addTemplate(pageBackground, 0F, 0F);
+        }
         if (pageObject == null) {
             return;
         }
-        float llx = pageObject.getHeader().getPosition().getLeft();
-        float lly = pageObject.getHeader().getPosition().getBottom();
-        float urx = pageObject.getHeader().getPosition().getRight();
-        float ury = pageObject.getHeader().getPosition().getTop();
-        float alingY = pageObject.getHeader().getPosition().getTop();
-        int fontSize = (int) pageObject.getHeader().getFontSize();
-
-        String[] headerBody = pageObject.getHeader().getBody();
-        try {
-            pdfWriterCB.saveState();
-            pdfWriterCB.beginText();
-            pdfWriterCB.setFontAndSize(baseFont, fontSize);
-            pdfWriterCB.setTextMatrix(llx, ury);
-            pdfWriterCB.setLeading(fontSize);
-            for (int i = 0; i < headerBody.length; i++) {
-                alingY = alingY - getLetterHeight(fontSize);
-                if (i == headerBody.length - 1) {
-                    pdfWriterCB.showTextAligned(PdfContentByte.ALIGN_RIGHT,
-                            headerBody[i] + StringUtils.right(CONTENT_OF_PAGE_COUNT + writer.getCurrentPageNumber(), 6) + "/          ",
-                            urx, alingY, 0);
-                } else {
-                    pdfWriterCB.showTextAligned(PdfContentByte.ALIGN_RIGHT,
-                            headerBody[i], urx, alingY, 0);
-                }
-            }
-            pdfWriterCB.endText();
-            pdfWriterCB.addTemplate(pageHeadTemplate, urx - baseFont.getWidthPoint(CONTENT_OF_PAGE_COUNT, fontSize), alingY);
-        } finally {
-            pdfWriterCB.restoreState();
+        pdfWriterCB.addTemplate(pageBand, 0F, 0F);
+        if (!pageNumbersDeferred) {
+            writePageNumber(pdfWriterCB, writer.getCurrentPageNumber(), pageHeadTemplate);
         }
     }
 
@@ -175,16 +328,86 @@ public final class Writer extends PdfPageEventHelper {
     public void onStartPage(PdfWriter writer, Document document) {
     }
 
+    /**
+     * Start recording the page background, the following draw and write calls
+     * (not annotations and the page header) go into a template instead of the page,
+     * until endPageBackground(). The static frames, lines and labels of a layout are drawn once this way.
+     */
+    public void beginPageBackground() throws Exception {
+        if (canvas != pdfWriterCB) {
+            throw new Exception("Writer: the page background is being recorded");
+        }
+        Rectangle pageSize = document.getPageSize();
+        PdfTemplate template = pdfWriterCB.createTemplate(pageSize.getWidth(), pageSize.getHeight());
+        template.setBoundingBox(new Rectangle(0F, 0F, pageSize.getWidth(), pageSize.getHeight()));
+        canvas = template;
+    }
+
+    /**
+     * Stop recording, the background is put under the current page and every following page when they end.
+     */
+    public void endPageBackground() throws Exception {
+        if (canvas == pdfWriterCB) {
+            throw new Exception("Writer: beginPageBackground() was not called");
+        }
+        pageBackground = (PdfTemplate) canvas;
+        canvas = pdfWriterCB;
+    }
+
+    /**
+     * the current and following pages have no background.
+     */
+    public void clearPageBackground() {
+        pageBackground = null;
+    }
+
     public void insertPage(int pageNumberOfTemplate) {
         document.newPage();
     }
 
+    /**
+     * start a new page.
+     */
+    public void newPage() {
+        document.newPage();
+    }
+
     public float getLetterHeight(int fontSize) {
-        return baseFont.getWidthPoint("中", fontSize);
+        metricsListener.metricsCacheAccess(1, 0);
+        return metrics.getLetterHeight(fontSize);
     }
 
     public float getStringWidth(String content, int fontSize) {
-        return baseFont.getWidthPoint(content, fontSize);
+        return measure(metrics, content, fontSize);
+    }
+
+    public float getAnsiStringWidth(String content, int fontSize) {
+        return measure(ansiMetrics, content, fontSize);
+    }
+
+    private float measure(FontMetrics fontMetrics, String content, int fontSize) {
+        long loads = fontMetrics.getLoads();
+        float width = fontMetrics.getWidthPoint(content, fontSize);
+        metricsListener.metricsCacheAccess(content.length(), (int) (fontMetrics.getLoads() - loads));
+        return width;
+    }
+
+    /**
+     * @param fontType Cell.FontType, which font will be used to render the content.
+     */
+    public float getStringWidth(String content, int fontSize, int fontType) {
+        if (fontType == Cell.FontType.DBCS) {
+            return getStringWidth(content, fontSize);
+        }
+        return getAnsiStringWidth(content, fontSize);
+    }
+
+    public FontMetrics getMetrics() {
+        return metrics;
+    }
+
+    public FontMetrics getAnsiMetrics() {
+        return ansiMetrics;
     }
 
     public void writeTextArray(String[] textArray, int fontSize, float leftX, float bottomY, float rightX, float topY) {
@@ -198,84 +421,80 @@ public final class Writer extends PdfPageEventHelper {
                 }
             }
 
-            pdfWriterCB.saveState();
-            pdfWriterCB.beginText();
-            pdfWriterCB.setFontAndSize(baseFont, fontSize);
-            pdfWriterCB.setColorFill(this.baseColor);
-            pdfWriterCB.setTextMatrix(leftX, getCenterViaTop(bottomY, topY, letterHeight * (float) arrayLength));
-            pdfWriterCB.setLeading(letterHeight);
+            canvas.saveState();
+            canvas.beginText();
+            canvas.setFontAndSize(baseFont, fontSize);
+            canvas.setColorFill(this.baseColor);
+            canvas.setTextMatrix(leftX, getCenterViaTop(bottomY, topY, letterHeight * (float) arrayLength));
+            canvas.setLeading(letterHeight);
             for (String s : textArray) {
                 if (s != null) {
-                    pdfWriterCB.newlineShowText(s);
+                    canvas.newlineShowText(s);
                 }
             }
-            pdfWriterCB.endText();
+            canvas.endText();
         } finally {
-            pdfWriterCB.restoreState();
+            canvas.restoreState();
         }
     }
 
+    /**
+     * write the text, wrap it into lines if it's wider than the column.
+     * Latin text is wrapped at spaces, CJK text between any two letters.
+     */
     public void writeWrapText(String text, int fontSize, float leftX, float bottomY, float rightX, float topY) throws Exception {
-        int realTextWidth = (int) baseFont.getWidthPoint(text, fontSize);
-        int columnWidth = (int) (rightX - leftX);
-
-        if (columnWidth >= realTextWidth) {
+        long loads = metrics.getLoads();
+        int lineCount = lineBreaker.breakLines(text, metrics, fontSize, rightX - leftX);
+        metricsListener.metricsCacheAccess(text.length(), (int) (metrics.getLoads() - loads));
+        if (lineCount <= 1) {
             writeText(text, fontSize, leftX, bottomY, topY);
-        } else {
-            String[] textArray;
-            if (realTextWidth % columnWidth == 0) {
-                textArray = new String[(realTextWidth / columnWidth) + 1];
-            } else {
-                textArray = new String[(realTextWidth / columnWidth) + 2];
-            }
-            int tmpWidth = 0;
-            int start = 0;
-            int index = 0;
-            for (int i = 0; i < text.length(); i++) {
-                tmpWidth += Math.round(baseFont.getWidthPoint(text.substring(i, i + 1), fontSize));
-                if (tmpWidth >= (columnWidth - fontSize)) {
-                    textArray[index] = text.substring(start, i);
-                    start = i;
-                    index++;
-                    tmpWidth = 0;
-                }
-            }
-            if (start < text.length()) {
-                textArray[index] = text.substring(start);
+            return;
+        }
+        try {
+            float letterHeight = getLetterHeight(fontSize);
+            canvas.saveState();
+            canvas.beginText();
+            canvas.setFontAndSize(baseFont, fontSize);
+            canvas.setColorFill(this.baseColor);
+            canvas.setTextMatrix(leftX, getCenterViaTop(bottomY, topY, letterHeight * (float) lineCount));
+            canvas.setLeading(letterHeight);
+            for (int i = 0; i < lineCount; i++) {
+                canvas.newlineShowText(text.substring(lineBreaker.getLineStart(i), lineBreaker.getLineEnd(i)));
             }
-
-            writeTextArray(textArray, fontSize, leftX, bottomY, rightX, topY);
+            canvas.endText();
+        } finally {
+            canvas.restoreState();
         }
     }
 
     public void writeText(String text, int fontSize, float leftX, float bottomY, float topY) {
         try {
             float letterHeight = getLetterHeight(fontSize);
-            pdfWriterCB.saveState();
-            pdfWriterCB.beginText();
-            pdfWriterCB.setFontAndSize(baseFont, fontSize);
-            pdfWriterCB.setColorFill(this.baseColor);
-            pdfWriterCB.setTextMatrix(leftX, getCenterViaBottom(bottomY, topY, letterHeight));
-            pdfWriterCB.showText(text);
-            pdfWriterCB.endText();
+            canvas.saveState();
+            canvas.beginText();
+            canvas.setFontAndSize(baseFont, fontSize);
+            canvas.setColorFill(this.baseColor);
+            canvas.setTextMatrix(leftX, getCenterViaBottom(bottomY, topY, letterHeight));
+            canvas.showText(text);
+            canvas.endText();
         } finally {
-            pdfWriterCB.restoreState();
+            canvas.restoreState();
         }
     }
 
     public void writeText(String text, int fontSize, Position position) {
         try {
             position.decreaseTop(fontSize);
-            pdfWriterCB.saveState();
-            pdfWriterCB.beginText();
-            pdfWriterCB.setFontAndSize(baseFont, fontSize);
-            pdfWriterCB.setColorFill(this.baseColor);
-            pdfWriterCB.setTextMatrix(position.getLeft(), position.getTop());
-            pdfWriterCB.showText(text);
-            pdfWriterCB.endText();
+            canvas.saveState();
+            canvas.beginText();
+            canvas.setFontAndSize(baseFont, fontSize);
+            canvas.setColorFill(this.baseColor);
+            canvas.setTextMatrix(position.getLeft(), position.getTop());
+            canvas.showText(text);
+            canvas.endText();
             position.decreaseTop(1);
         } finally {
-            pdfWriterCB.restoreState();
+            canvas.restoreState();
         }
     }
 
@@ -292,27 +511,27 @@ public final class Writer extends PdfPageEventHelper {
     public void writeAlignedText(String text, int fontSize, String alignment, float leftX, float bottomY, float rightX, float topY) throws Exception {
         try {
             float letterHeight = getLetterHeight(fontSize);
-            pdfWriterCB.saveState();
-            pdfWriterCB.beginText();
-            pdfWriterCB.setFontAndSize(baseFont, fontSize);
-            pdfWriterCB.setColorFill(this.baseColor);
+            canvas.saveState();
+            canvas.beginText();
+            canvas.setFontAndSize(baseFont, fontSize);
+            canvas.setColorFill(this.baseColor);
             switch (alignment.charAt(0)) {
                 case 'L':
-                    pdfWriterCB.setTextMatrix(leftX, getCenterViaBottom(bottomY, topY, letterHeight));
-                    pdfWriterCB.showText(text);
+                    canvas.setTextMatrix(leftX, getCenterViaBottom(bottomY, topY, letterHeight));
+                    canvas.showText(text);
                     break;
                 case 'C':
-                    pdfWriterCB.showTextAligned(PdfContentByte.ALIGN_CENTER, text, leftX + ((rightX - leftX) / 2F), getCenterViaBottom(bottomY, topY, letterHeight), 0);
+                    canvas.showTextAligned(PdfContentByte.ALIGN_CENTER, text, leftX + ((rightX - leftX) / 2F), getCenterViaBottom(bottomY, topY, letterHeight), 0);
                     break;
                 case 'R':
-                    pdfWriterCB.showTextAligned(PdfContentByte.ALIGN_RIGHT, text, rightX, getCenterViaBottom(bottomY, topY, letterHeight), 0);
+                    canvas.showTextAligned(PdfContentByte.ALIGN_RIGHT, text, rightX, getCenterViaBottom(bottomY, topY, letterHeight), 0);
                     break;
                 default:
                     throw new Exception("Invalid alignment, alignment: " + alignment);
             }
-            pdfWriterCB.endText();
+            canvas.endText();
         } finally {
-            pdfWriterCB.restoreState();
+            canvas.restoreState();
         }
     }
 
@@ -321,26 +540,40 @@ public final class Writer extends PdfPageEventHelper {
     }
 
     public void writeBarcode(String barcode, float leftX, float bottomY, float scalePercent, boolean isShowCode) throws Exception {
-        Barcode39 code39 = new Barcode39();
-        code39.setStartStopText(false);
-        code39.setTextAlignment(PdfContentByte.ALIGN_LEFT);
-        if (!isShowCode) {
-            code39.setFont(null);
-        }
-        code39.setCode(barcode);
-        Image image = code39.createImageWithBarcode(pdfWriterCB, this.baseColor, this.baseColor);
-        image.setAbsolutePosition(leftX, bottomY);
-        image.scalePercent(scalePercent);
-        pdfWriterCB.addImage(image);
+        writeBarcode(BarcodeRenderer.Symbology.CODE39, barcode, leftX, bottomY, scalePercent, isShowCode);
     }
 
+    /**
+     * write a barcode as vector bars, the same code is drawn once per document and referenced after.
+     */
+    public void writeBarcode(BarcodeRenderer.Symbology symbology, String barcode, float leftX, float bottomY, float scalePercent, boolean isShowCode) throws Exception {
+        barcodeRenderer.write(canvas, symbology, barcode, leftX, bottomY, scalePercent, isShowCode, this.baseColor);
+    }
+
+    public ImageCache getImageCache() {
+        return imageCache;
+    }
+
+    /**
+     * @param imageCache cache of the images written by path, null to decode the file on every call.
+     */
+    public void setImageCache(ImageCache imageCache) {
+        this.imageCache = imageCache;
+    }
+
+    /**
+     * write the image of the path, the same image is embedded once in a document.
+     */
     public void writeImage(String imagePath, float leftX, float bottomY, float scalePercent) throws Exception {
-        Image image = Image.getInstance(imagePath);
+        Image image = imageCache == null ? Image.getInstance(imagePath) : imageCache.getImage(imagePath);
+        if (imageCache == null || placedImages.add(imagePath)) {
+            imageBytes += ImageCache.sizeOf(image);
+        }
         image.setAbsolutePosition(leftX, bottomY);
         if(scalePercent > 0F) {
             image.scalePercent(scalePercent);
         }
-        pdfWriterCB.addImage(image);
+        canvas.addImage(image);
     }
 
     public void writeImage(String imagePath, float leftX, float bottomY) throws Exception {
@@ -372,56 +605,56 @@ public final class Writer extends PdfPageEventHelper {
 
     public void drawLine(float lineWidth, float fromX, float fromY, float toX, float toY) {
         try {
-            pdfWriterCB.saveState();
-            pdfWriterCB.setLineWidth(lineWidth);
-            pdfWriterCB.setRGBColorStroke(0, 0, 0);
-            pdfWriterCB.moveTo(fromX, fromY);
-            pdfWriterCB.lineTo(toX, toY);
-            pdfWriterCB.stroke();
+            canvas.saveState();
+            canvas.setLineWidth(lineWidth);
+            canvas.setRGBColorStroke(0, 0, 0);
+            canvas.moveTo(fromX, fromY);
+            canvas.lineTo(toX, toY);
+            canvas.stroke();
         } finally {
-            pdfWriterCB.restoreState();
+            canvas.restoreState();
         }
     }
 
     public void drawLine(float lineWidth, Position position) {
         try {
             position.decreaseTop(lineWidth);
-            pdfWriterCB.saveState();
-            pdfWriterCB.setLineWidth(lineWidth);
-            pdfWriterCB.setRGBColorStroke(0, 0, 0);
-            pdfWriterCB.moveTo(position.getLeft(), position.getTop());
-            pdfWriterCB.lineTo(position.getRight(), position.getTop());
-            pdfWriterCB.stroke();
+            canvas.saveState();
+            canvas.setLineWidth(lineWidth);
+            canvas.setRGBColorStroke(0, 0, 0);
+            canvas.moveTo(position.getLeft(), position.getTop());
+            canvas.lineTo(position.getRight(), position.getTop());
+            canvas.stroke();
             position.decreaseTop((lineWidth + 1));
         } finally {
-            pdfWriterCB.restoreState();
+            canvas.restoreState();
         }
     }
 
     public void drawRectangle(Position position, float lineWidth) {
         try {
-            pdfWriterCB.saveState();
-            pdfWriterCB.setRGBColorStroke(0, 0, 0);
-            pdfWriterCB.setLineWidth(lineWidth);
-            pdfWriterCB.rectangle(position.getLeft(), position.getBottom(), position.getWidth(), position.getHeight());
-            pdfWriterCB.stroke();
+            canvas.saveState();
+            canvas.setRGBColorStroke(0, 0, 0);
+            canvas.setLineWidth(lineWidth);
+            canvas.rectangle(position.getLeft(), position.getBottom(), position.getWidth(), position.getHeight());
+            canvas.stroke();
         } finally {
-            pdfWriterCB.restoreState();
+            canvas.restoreState();
         }
     }
 
     public void drawRectangleWithVariableBorder(Position position, float lineWidth, int borderType) {
         try {
-            pdfWriterCB.saveState();
-            pdfWriterCB.setRGBColorStroke(0, 0, 0);
+            canvas.saveState();
+            canvas.setRGBColorStroke(0, 0, 0);
             Rectangle rectangle = new Rectangle(position.getLeft(), position.getBottom(), position.getRight(), position.getTop());
             rectangle.setBorderWidth(lineWidth);
             rectangle.setBorder(borderType);
             rectangle.setUseVariableBorders(true);
-            pdfWriterCB.rectangle(position.getLeft(), position.getBottom(), position.getWidth(), position.getHeight());
-            pdfWriterCB.stroke();
+            canvas.rectangle(position.getLeft(), position.getBottom(), position.getWidth(), position.getHeight());
+            canvas.stroke();
         } finally {
-            pdfWriterCB.restoreState();
+            canvas.restoreState();
         }
     }
 
@@ -434,20 +667,20 @@ public final class Writer extends PdfPageEventHelper {
         float left = position.getLeft();
         for (int i = 1; i <= splitSize; i++) {
             try {
-                pdfWriterCB.saveState();
-                pdfWriterCB.setRGBColorStroke(0, 0, 0);
-                pdfWriterCB.setLineWidth(lineWidth);
-                pdfWriterCB.rectangle(left, position.getBottom(), width, height);
-                pdfWriterCB.stroke();
+                canvas.saveState();
+                canvas.setRGBColorStroke(0, 0, 0);
+                canvas.setLineWidth(lineWidth);
+                canvas.rectangle(left, position.getBottom(), width, height);
+                canvas.stroke();
             } finally {
-                pdfWriterCB.restoreState();
+                canvas.restoreState();
             }
             left += width;
         }
     }
 
     public PdfPTable createTable(int columns, float width, int[] columnWidthScale) throws DocumentException {
-        PdfPTable pdfTable = new PdfPTable(columns);
+        PdfPTable pdfTable = new AppendablePdfPTable(this, columns);
         //table.setTableEvent(null);
         pdfTable.setTotalWidth(width);
         pdfTable.setWidths(columnWidthScale);
@@ -485,12 +718,90 @@ public final class Writer extends PdfPageEventHelper {
         table.addCell(pCell);
     }
 
+    /**
+     * Add a row of cells in one call, one PdfPCell is reused for all cells of the row.
+     * An unfinished row of the table is completed with empty cells first,
+     * the rest of the new row is filled with empty cells too.
+     */
+    public void addRow(PdfPTable table, CharSequence[] contents, int count, int fontSize, float borderWidth, boolean ansi) {
+        table.getDefaultCell().setBorderWidth(borderWidth);
+        table.completeRow();
+        if (count > 0) {
+            Font font = ansi ? getAnsiFont(fontSize) : getFont(fontSize);
+            PdfPCell pCell = new PdfPCell();
+            pCell.setBorderWidth(borderWidth);
+            pCell.setNoWrap(false);
+            pCell.setHorizontalAlignment(PdfContentByte.ALIGN_LEFT);
+            pCell.setVerticalAlignment(Element.ALIGN_MIDDLE);
+            for (int i = 0; i < count; i++) {
+                pCell.setPhrase(new Phrase(contents[i] == null ? "" : contents[i].toString(), font));
+                table.addCell(pCell);
+            }
+        }
+        table.completeRow();
+    }
+
+    /**
+     * Add a row of Cells in one call, completed with empty cells like addRow of contents.
+     */
+    public void addRow(PdfPTable table, Cell[] cells, int count, float borderWidth) {
+        table.getDefaultCell().setBorderWidth(borderWidth);
+        table.completeRow();
+        for (int i = 0; i < count; i++) {
+            addCell(table, cells[i]);
+        }
+        table.completeRow();
+    }
+
+    /**
+     * Append a row laid out in advance (cells, widths and heights), it's not copied or measured again.
+     * An unfinished row of the table is completed with empty cells first.
+     */
+    public void appendRow(PdfPTable table, PdfPRow row, float borderWidth) {
+        table.getDefaultCell().setBorderWidth(borderWidth);
+        table.completeRow();
+        if (table instanceof AppendablePdfPTable) {
+            ((AppendablePdfPTable) table).appendRow(row);
+        } else {
+            for (PdfPCell cell : row.getCells()) {
+                if (cell != null) {
+                    table.addCell(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Take the cells of the unfinished row out of a table created by createTable,
+     * they could be added to another table of the same columns.
+     *
+     * @return the cells in their order, none if the last row was completed.
+     */
+    public PdfPCell[] removeUnfinishedRow(PdfPTable table) {
+        if (!(table instanceof AppendablePdfPTable)) {
+            throw new IllegalArgumentException("Writer: the table wasn't created by createTable");
+        }
+        return ((AppendablePdfPTable) table).removeCurrentRow();
+    }
+
+    /**
+     * The PdfPCell of the cell's style is created once per Writer and reused,
+     * PdfPTable.addCell keeps a copy of it.
+     */
     public void addCell(PdfPTable table, Cell cell) {
-        PdfPCell pCell = cell.getPdfPCell();
-        if (cell.getFontType() == Cell.FontType.DBCS) {
-            pCell.setPhrase(new Phrase(cell.getContent(), getFont(cell.getFontSize())));
+        CellStyle style = cell.getStyle();
+        PdfPCell pCell = cell.hasPdfPCell() ? cell.getPdfPCell() : cellPrototypes.get(style);
+        if (pCell == null) {
+            pCell = style.newPdfPCell();
+            // bounded like the StyleRegistry, styles of computed values are not kept.
+            if (cellPrototypes.size() < StyleRegistry.DEFAULT_MAX_STYLES) {
+                cellPrototypes.put(style, pCell);
+            }
+        }
+        if (style.getFontType() == Cell.FontType.DBCS) {
+            pCell.setPhrase(new Phrase(cell.getContent(), getFont(style.getFontSize())));
         } else {
-            pCell.setPhrase(new Phrase(cell.getContent(), getAnsiFont(cell.getFontSize())));
+            pCell.setPhrase(new Phrase(cell.getContent(), getAnsiFont(style.getFontSize())));
         }
         table.addCell(pCell);
     }
@@ -505,14 +816,106 @@ public final class Writer extends PdfPageEventHelper {
      */
     public float flushTable(PdfPTable table, float leftX, float topY) {
         // table.setTableEvent(null);
-        return table.writeSelectedRows(0, -1, leftX, topY, pdfWriterCB);
+        long start = System.nanoTime();
+        float bottom = table.writeSelectedRows(0, -1, leftX, topY, canvas);
+        metricsListener.tableFlushed(table.size(), System.nanoTime() - start);
+        if (table instanceof AppendablePdfPTable) {
+            ((AppendablePdfPTable) table).release();
+        }
+        return bottom;
+    }
+
+    /**
+     * Flush the rows of the table in memory
+     *
+     * @param rowStart the first row to be written, zero index
+     * @param rowEnd the last row to be written + 1
+     * @return Y-coord of the bottom position of the rows
+     */
+    public float flushTable(PdfPTable table, int rowStart, int rowEnd, float leftX, float topY) {
+        long start = System.nanoTime();
+        float bottom = table.writeSelectedRows(rowStart, rowEnd, leftX, topY, canvas);
+        metricsListener.tableFlushed(rowEnd - rowStart, System.nanoTime() - start);
+        return bottom;
     }
 
     public void close() throws Exception {
-        document.close();
+        try {
+            document.close();
+        } finally {
+            if (outputStream != null) {
+                outputStream.close();
+            }
+            metricsListener.bytesWritten(getBytesWritten());
+        }
     }
 
     public int getCurrentPageNumber() {
         return pdfWriter.getCurrentPageNumber();
     }
+
+    /**
+     * @return bytes written to the pdf file so far.
+     */
+    public long getBytesWritten() {
+        return partStream != null ? partStream.size() : outputStream.getBytesWritten();
+    }
+
+    public OutputProfile getOutputProfile() {
+        return outputProfile;
+    }
+
+    /**
+     * @return estimate of the heap retained by the document: the rows of the tables created by this Writer
+     *         and not written yet, and the images it placed.
+     */
+    public long getRetainedBytes() {
+        return retainedBytes + imageBytes;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public BudgetPolicy getBudgetPolicy() {
+        return budgetPolicy;
+    }
+
+    /**
+     * Limit the heap retained by this document, so a single huge document fails instead of the whole JVM.
+     * SmartTables check the budget after every add, tables filled by the Writer methods directly
+     * are checked under BudgetPolicy.FAIL only.
+     *
+     * @param memoryBudget bytes by getRetainedBytes(), 0 for no limit.
+     */
+    public void setMemoryBudget(long memoryBudget, BudgetPolicy budgetPolicy) {
+        this.memoryBudget = Math.max(memoryBudget, 0L);
+        this.budgetPolicy = budgetPolicy == null ? BudgetPolicy.FLUSH : budgetPolicy;
+    }
+
+    public boolean isOverMemoryBudget() {
+        return memoryBudget > 0L && getRetainedBytes() > memoryBudget;
+    }
+
+    /**
+     * Called once the tables wrote what they could.
+     *
+     * @throws MemoryBudgetExceededException if the document is still over the budget.
+     */
+    public void checkMemoryBudget() {
+        if (!isOverMemoryBudget()) {
+            return;
+        }
+        throw new MemoryBudgetExceededException(getRetainedBytes(), memoryBudget);
+    }
+
+    /**
+     * the rows of a table retain more (or less) heap.
+     */
+    void retained(long bytes) {
+        retainedBytes += bytes;
+        if (bytes > 0L && budgetPolicy == BudgetPolicy.FAIL && isOverMemoryBudget()) {
+            throw new MemoryBudgetExceededException(getRetainedBytes(), memoryBudget);
+        }
+    }
 }
@@ -0,0 +1,172 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.batch;
+
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Rectangle;
+import fc.extensions.itext.BudgetPolicy;
+import fc.extensions.itext.FontRegistry;
+import fc.extensions.itext.OutputSettings;
+import fc.extensions.itext.metrics.MetricsListener;
+
+/**
+ * Settings of a BatchEngine, the resources here are shared read-only by all jobs.
+ *
+ * @author Andersen
+ */
+public final class BatchConfig {
+
+    private Rectangle pageSize = PageSize.A4;
+    private String fontPath = null;
+    private String ansiFontPath = null;
+    private FontRegistry fontRegistry = FontRegistry.getDefault();
+    private OutputSettings outputSettings = new OutputSettings();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxInFlight = Runtime.getRuntime().availableProcessors() * 2;
+    private FailurePolicy failurePolicy = FailurePolicy.SKIP;
+    private int maxRetries = 1;
+    private MetricsListener metricsListener = null;
+    private long memoryBudget = 0L;
+    private BudgetPolicy budgetPolicy = BudgetPolicy.FLUSH;
+
+    public BatchConfig(String fontPath, String ansiFontPath) {
+        this.fontPath = fontPath;
+        this.ansiFontPath = ansiFontPath;
+    }
+
+    public Rectangle getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(Rectangle pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public String getFontPath() {
+        return fontPath;
+    }
+
+    public void setFontPath(String fontPath) {
+        this.fontPath = fontPath;
+    }
+
+    public String getAnsiFontPath() {
+        return ansiFontPath;
+    }
+
+    public void setAnsiFontPath(String ansiFontPath) {
+        this.ansiFontPath = ansiFontPath;
+    }
+
+    public FontRegistry getFontRegistry() {
+        return fontRegistry;
+    }
+
+    public void setFontRegistry(FontRegistry fontRegistry) {
+        this.fontRegistry = fontRegistry;
+    }
+
+    public OutputSettings getOutputSettings() {
+        return outputSettings;
+    }
+
+    public void setOutputSettings(OutputSettings outputSettings) {
+        this.outputSettings = outputSettings;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @param threads worker threads for CPU-bound jobs, the number of cores by default.
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(threads, 1);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @param maxInFlight how many jobs could be taken from the source and not finished yet,
+     *        the source is not read further until one of them is done.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(maxInFlight, 1);
+    }
+
+    public FailurePolicy getFailurePolicy() {
+        return failurePolicy;
+    }
+
+    public void setFailurePolicy(FailurePolicy failurePolicy) {
+        this.failurePolicy = failurePolicy == null ? FailurePolicy.SKIP : failurePolicy;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = Math.max(maxRetries, 0);
+    }
+
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * @param metricsListener given to every Writer of the batch, e.g. a DefaultMetrics for metrics per batch.
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public BudgetPolicy getBudgetPolicy() {
+        return budgetPolicy;
+    }
+
+    /**
+     * @param memoryBudget heap a single document could retain, 0 for no limit. A document over it fails
+     *        by the FailurePolicy, the other documents of the batch go on.
+     * @see fc.extensions.itext.Writer#setMemoryBudget(long, BudgetPolicy)
+     */
+    public void setMemoryBudget(long memoryBudget, BudgetPolicy budgetPolicy) {
+        this.memoryBudget = Math.max(memoryBudget, 0L);
+        this.budgetPolicy = budgetPolicy == null ? BudgetPolicy.FLUSH : budgetPolicy;
+    }
+}
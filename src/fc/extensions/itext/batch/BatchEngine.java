@@ -0,0 +1,218 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.batch;
+
+import com.itextpdf.text.Rectangle;
+import fc.extensions.itext.Writer;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes a stream of documents on a bounded pool of workers,
+ * one Writer per document in flight, fonts are shared through the FontRegistry.
+ *
+ * The source is read by the calling thread, at most maxInFlight jobs are taken
+ * from it and not finished yet.
+ *
+ * @author Andersen
+ */
+public final class BatchEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(BatchEngine.class.getName());
+
+    private final BatchConfig config;
+    private final ExecutorService cpuExecutor;
+    private ExecutorService ioExecutor = null;
+
+    public BatchEngine(BatchConfig config) {
+        this.config = config;
+        this.cpuExecutor = Executors.newFixedThreadPool(config.getThreads(), new WorkerThreadFactory("batch-worker-"));
+    }
+
+    /**
+     * write all documents of the source, it returns when all of them are done (or the batch was aborted).
+     */
+    public BatchStatistics run(Iterator<? extends DocumentJob> jobs) throws InterruptedException {
+        final BatchStatistics statistics = new BatchStatistics();
+        final Semaphore inFlight = new Semaphore(config.getMaxInFlight());
+        try {
+            while (true) {
+                inFlight.acquire();
+                final DocumentJob job;
+                try {
+                    if (statistics.isAborted() || !jobs.hasNext()) {
+                        inFlight.release();
+                        break;
+                    }
+                    job = jobs.next();
+                } catch (RuntimeException ex) {
+                    // the source failed, the permit of the job not read must not be waited for.
+                    inFlight.release();
+                    throw ex;
+                }
+                statistics.submitted();
+                Runnable task = new Runnable() {
+
+                    public void run() {
+                        try {
+                            execute(job, statistics);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }
+                };
+                try {
+                    executorOf(job).execute(task);
+                } catch (RuntimeException ex) {
+                    inFlight.release();
+                    statistics.failed(job, ex);
+                    throw ex;
+                }
+            }
+        } finally {
+            // wait for the jobs in flight.
+            inFlight.acquireUninterruptibly(config.getMaxInFlight());
+            inFlight.release(config.getMaxInFlight());
+            statistics.finish();
+        }
+        return statistics;
+    }
+
+    /**
+     * stop the workers, wait for running jobs.
+     */
+    public void shutdown() throws InterruptedException {
+        cpuExecutor.shutdown();
+        cpuExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        synchronized (this) {
+            if (ioExecutor != null) {
+                ioExecutor.shutdown();
+                ioExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private ExecutorService executorOf(DocumentJob job) {
+        if (!job.isIoBound()) {
+            return cpuExecutor;
+        }
+        synchronized (this) {
+            if (ioExecutor == null) {
+                ioExecutor = newIoExecutor();
+            }
+            return ioExecutor;
+        }
+    }
+
+    /**
+     * a virtual thread per task when the JVM has them, otherwise a cached pool,
+     * the number of jobs is still bounded by maxInFlight.
+     */
+    private static ExecutorService newIoExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception ex) {
+            return Executors.newCachedThreadPool(new WorkerThreadFactory("batch-io-"));
+        }
+    }
+
+    private void execute(DocumentJob job, BatchStatistics statistics) {
+        FailurePolicy policy = job.getFailurePolicy() == null ? config.getFailurePolicy() : job.getFailurePolicy();
+        int attempts = policy == FailurePolicy.RETRY ? config.getMaxRetries() + 1 : 1;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            long start = System.nanoTime();
+            try {
+                writeDocument(job);
+                statistics.succeeded(System.nanoTime() - start);
+                return;
+            } catch (Throwable ex) {
+                LOGGER.log(Level.WARNING, "BatchEngine: job failed, job: " + job + ", attempt: " + attempt, ex);
+                if (attempt < attempts) {
+                    statistics.retried();
+                } else {
+                    statistics.failed(job, ex);
+                    if (policy == FailurePolicy.ABORT) {
+                        statistics.abort();
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeDocument(DocumentJob job) throws Exception {
+        Rectangle pageSize = job.getPageSize() == null ? config.getPageSize() : job.getPageSize();
+        Writer writer = new Writer(job.getPdfFile(), pageSize, config.getFontRegistry(),
+                config.getFontPath(), config.getAnsiFontPath(), config.getOutputSettings());
+        writer.setMetricsListener(config.getMetricsListener());
+        writer.setMemoryBudget(config.getMemoryBudget(), config.getBudgetPolicy());
+        boolean done = false;
+        try {
+            job.write(writer);
+            writer.close();
+            done = true;
+        } finally {
+            if (!done) {
+                try {
+                    writer.close();
+                } catch (Exception ignored) {
+                    // the document may have no pages.
+                }
+                new File(job.getPdfFile()).delete();
+            }
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        WorkerThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
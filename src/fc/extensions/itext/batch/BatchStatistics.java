@@ -0,0 +1,173 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import fc.extensions.itext.metrics.Histogram;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput and latency of a batch run, updated by the workers while the batch runs.
+ *
+ * @author Andersen
+ */
+public final class BatchStatistics {
+
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger retried = new AtomicInteger();
+    private final Histogram latency = new Histogram();
+    private final List<JobFailure> failures = Collections.synchronizedList(new ArrayList<JobFailure>());
+    private final long startTime = System.nanoTime();
+    private volatile long endTime = -1L;
+    private volatile boolean aborted = false;
+
+    /**
+     * a failed job and the cause.
+     */
+    public static final class JobFailure {
+
+        private final DocumentJob job;
+        private final Throwable cause;
+
+        JobFailure(DocumentJob job, Throwable cause) {
+            this.job = job;
+            this.cause = cause;
+        }
+
+        public DocumentJob getJob() {
+            return job;
+        }
+
+        public Throwable getCause() {
+            return cause;
+        }
+    }
+
+    BatchStatistics() {
+    }
+
+    void submitted() {
+        submitted.incrementAndGet();
+    }
+
+    void succeeded(long latencyNanos) {
+        succeeded.incrementAndGet();
+        latency.record(latencyNanos);
+    }
+
+    void failed(DocumentJob job, Throwable cause) {
+        failed.incrementAndGet();
+        failures.add(new JobFailure(job, cause));
+    }
+
+    void retried() {
+        retried.incrementAndGet();
+    }
+
+    void abort() {
+        aborted = true;
+    }
+
+    void finish() {
+        endTime = System.nanoTime();
+    }
+
+    public int getSubmitted() {
+        return submitted.get();
+    }
+
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getRetried() {
+        return retried.get();
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public List<JobFailure> getFailures() {
+        synchronized (failures) {
+            return new ArrayList<JobFailure>(failures);
+        }
+    }
+
+    /**
+     * @return elapsed time of the batch, up to now if it's still running.
+     */
+    public long getElapsedMillis() {
+        long end = endTime < 0L ? System.nanoTime() : endTime;
+        return (end - startTime) / 1000000L;
+    }
+
+    /**
+     * @return succeeded documents per second.
+     */
+    public double getThroughput() {
+        long elapsed = getElapsedMillis();
+        return elapsed == 0L ? 0D : succeeded.get() * 1000D / elapsed;
+    }
+
+    public double getAverageLatencyMillis() {
+        return latency.getMeanMillis();
+    }
+
+    public double getMaxLatencyMillis() {
+        return latency.getMaxMillis();
+    }
+
+    /**
+     * @param percentile 0 ~ 100
+     * @see Histogram#getPercentileMillis(double)
+     */
+    public double getLatencyPercentileMillis(double percentile) {
+        return latency.getPercentileMillis(percentile);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[submitted: %d ,succeeded: %d ,failed: %d ,retried: %d ,aborted: %s ,elapsed: %d ms ,throughput: %.2f docs/s"
+                + " ,latency avg: %.2f ms ,p50: %.2f ms ,p95: %.2f ms ,p99: %.2f ms ,max: %.2f ms]",
+                getSubmitted(), getSucceeded(), getFailed(), getRetried(), aborted, getElapsedMillis(), getThroughput(),
+                getAverageLatencyMillis(), getLatencyPercentileMillis(50D), getLatencyPercentileMillis(95D),
+                getLatencyPercentileMillis(99D), getMaxLatencyMillis());
+    }
+}
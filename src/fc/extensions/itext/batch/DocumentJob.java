@@ -0,0 +1,69 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.batch;
+
+import com.itextpdf.text.Rectangle;
+import fc.extensions.itext.Writer;
+
+/**
+ * A document to be written by the BatchEngine.
+ *
+ * @author Andersen
+ * @see AbstractDocumentJob
+ */
+public interface DocumentJob {
+
+    /**
+     * @return path of the pdf file.
+     */
+    String getPdfFile();
+
+    /**
+     * @return page size of the document, null to use the one of BatchConfig.
+     */
+    Rectangle getPageSize();
+
+    /**
+     * @return null to use the one of BatchConfig.
+     */
+    FailurePolicy getFailurePolicy();
+
+    /**
+     * @return true if the job mostly waits for I/O (e.g. fetching data),
+     *         it's run on a virtual thread when the JVM supports them.
+     */
+    boolean isIoBound();
+
+    /**
+     * write the document, the writer is created and closed by the engine.
+     */
+    void write(Writer writer) throws Exception;
+}
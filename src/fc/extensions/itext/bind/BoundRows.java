@@ -0,0 +1,114 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.bind;
+
+import fc.extensions.itext.smart.AddStatus;
+import fc.extensions.itext.smart.Cell;
+import fc.extensions.itext.smart.SmartTable;
+import fc.extensions.itext.smart.TableMediator;
+import java.util.Iterator;
+
+/**
+ * Beans of an Iterator streamed as rows of a RowBinding, one table row per bean.
+ * A bean which doesn't fit is kept for the next fill, so the rows could go on in the tables of the next page.
+ *
+ * @author Andersen
+ */
+public final class BoundRows<T> {
+
+    private final RowBinding<T> binding;
+    private final Iterator<? extends T> beans;
+    private final Cell[] row;
+    private boolean pending = false;
+
+    BoundRows(RowBinding<T> binding, Iterator<? extends T> beans) {
+        this.binding = binding;
+        this.beans = beans;
+        this.row = binding.newRow();
+    }
+
+    private boolean next() {
+        if (pending) {
+            return true;
+        }
+        if (!beans.hasNext()) {
+            return false;
+        }
+        binding.bind(beans.next(), row);
+        pending = true;
+        return true;
+    }
+
+    /**
+     * add rows until the table is full or the beans are exhausted.
+     *
+     * @return how many rows were added.
+     */
+    public int fill(SmartTable table) {
+        int added = 0;
+        while (next()) {
+            if (table.tryAddRow(row) == AddStatus.FULL) {
+                break;
+            }
+            pending = false;
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * add rows until all mediated tables are full or the beans are exhausted,
+     * a row is never split across the tables.
+     *
+     * @return how many rows were added.
+     */
+    public int fill(TableMediator mediator) {
+        int added = 0;
+        while (next()) {
+            if (mediator.tryAddRow(row) == AddStatus.FULL) {
+                break;
+            }
+            pending = false;
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * @return true if a bean was rejected by the last fill.
+     */
+    public boolean hasPending() {
+        return pending;
+    }
+
+    public boolean isExhausted() {
+        return !pending && !beans.hasNext();
+    }
+}
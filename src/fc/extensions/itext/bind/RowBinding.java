@@ -0,0 +1,253 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.bind;
+
+import fc.extensions.itext.smart.Cell;
+import fc.extensions.itext.smart.CellStyle;
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Bind the properties of a bean class to the cells of a table row.
+ * The property paths are compiled once into MethodHandles, a row is read without any reflective lookup.
+ *
+ * <pre>
+ * RowBinding&lt;Transaction&gt; binding = new RowBinding&lt;Transaction&gt;(Transaction.class);
+ * binding.addColumn("date", dateStyle, ValueFormatters.date("yyyy/MM/dd"));
+ * binding.addColumn("memo", memoStyle);
+ * binding.addColumn("account.currency", codeStyle);
+ * binding.compile();
+ *
+ * BoundRows&lt;Transaction&gt; rows = binding.rows(transactions.iterator());
+ * rows.fill(mediator);
+ * </pre>
+ *
+ * A compiled binding is read-only and could be shared by threads,
+ * unless its formatters aren't thread-safe (e.g. the ones of ValueFormatters with a pattern).
+ *
+ * @author Andersen
+ */
+public final class RowBinding<T> {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Class<T> type;
+    private final List<String> paths = new ArrayList<String>();
+    private final List<CellStyle> styles = new ArrayList<CellStyle>();
+    private final List<ValueFormatter> formatters = new ArrayList<ValueFormatter>();
+    private MethodHandle[] getters = null;
+
+    public RowBinding(Class<T> type) {
+        this.type = type;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public RowBinding<T> addColumn(String path, CellStyle style) {
+        return addColumn(path, style, ValueFormatters.STRING);
+    }
+
+    /**
+     * map a property to the next cell of the row.
+     *
+     * @param path property name, nested properties are separated by '.', e.g. "account.number".
+     * @param style the cell style, it also decides DBCS or ANSI font by its font type.
+     */
+    public RowBinding<T> addColumn(String path, CellStyle style, ValueFormatter formatter) {
+        if (getters != null) {
+            throw new IllegalStateException("RowBinding: columns can't be added after compile()");
+        }
+        paths.add(path);
+        styles.add(style);
+        formatters.add(formatter);
+        return this;
+    }
+
+    public int getColumnCount() {
+        return paths.size();
+    }
+
+    public boolean isCompiled() {
+        return getters != null;
+    }
+
+    /**
+     * resolve every property path into one MethodHandle (Object)Object.
+     *
+     * @throws Exception if a property can't be read.
+     */
+    public synchronized RowBinding<T> compile() throws Exception {
+        if (getters != null) {
+            return this;
+        }
+        MethodHandle[] handles = new MethodHandle[paths.size()];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = compile(paths.get(i));
+        }
+        getters = handles;
+        return this;
+    }
+
+    private MethodHandle compile(String path) throws Exception {
+        Class<?> owner = type;
+        MethodHandle handle = null;
+        for (String name : path.split("\\.")) {
+            MethodHandle getter = getter(owner, name);
+            owner = getter.type().returnType();
+            if (owner.isPrimitive()) {
+                getter = getter.asType(getter.type().changeReturnType(boxed(owner)));
+            }
+            // a null in the middle of the path is passed on as null.
+            getter = MethodHandles.guardWithTest(
+                    NON_NULL.asType(MethodType.methodType(boolean.class, getter.type().parameterType(0))),
+                    getter,
+                    MethodHandles.dropArguments(MethodHandles.constant(Object.class, null).asType(MethodType.methodType(getter.type().returnType())), 0, getter.type().parameterType(0)));
+            handle = handle == null ? getter : MethodHandles.filterReturnValue(handle, getter);
+        }
+        if (handle == null) {
+            throw new Exception("RowBinding: empty property path of " + type.getName());
+        }
+        return handle.asType(GETTER_TYPE);
+    }
+
+    private static MethodHandle getter(Class<?> owner, String name) throws Exception {
+        BeanInfo info = Introspector.getBeanInfo(owner);
+        for (PropertyDescriptor property : info.getPropertyDescriptors()) {
+            Method read = property.getReadMethod();
+            if (property.getName().equals(name) && read != null) {
+                accessible(read);
+                return MethodHandles.lookup().unreflect(read);
+            }
+        }
+        for (Class<?> c = owner; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.getName().equals(name) && !Modifier.isStatic(field.getModifiers())) {
+                    accessible(field);
+                    return MethodHandles.lookup().unreflectGetter(field);
+                }
+            }
+        }
+        throw new Exception("RowBinding: no readable property '" + name + "' in " + owner.getName());
+    }
+
+    /**
+     * members of a non-public class are opened, the ones of other modules may refuse.
+     */
+    private static void accessible(AccessibleObject member) {
+        try {
+            member.setAccessible(true);
+        } catch (RuntimeException ex) {
+            // unreflect tells whether it's readable anyway.
+        }
+    }
+
+    private static Class<?> boxed(Class<?> primitive) {
+        return MethodType.methodType(primitive).wrap().returnType();
+    }
+
+    private static final MethodHandle NON_NULL;
+
+    static {
+        try {
+            NON_NULL = MethodHandles.lookup().findStatic(RowBinding.class, "nonNull", MethodType.methodType(boolean.class, Object.class));
+        } catch (Exception ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private static boolean nonNull(Object value) {
+        return value != null;
+    }
+
+    private void checkCompiled() {
+        if (getters == null) {
+            throw new IllegalStateException("RowBinding: compile() first");
+        }
+    }
+
+    /**
+     * @return the formatted content of the column, "" for null.
+     */
+    public String format(T bean, int column) {
+        checkCompiled();
+        Object value;
+        try {
+            value = (Object) getters[column].invokeExact((Object) bean);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("RowBinding: can't read '" + paths.get(column) + "' of " + type.getName(), ex);
+        }
+        return value == null ? "" : formatters.get(column).format(value);
+    }
+
+    /**
+     * @return new cells of the column styles, to be filled by bind().
+     */
+    public Cell[] newRow() {
+        Cell[] row = new Cell[styles.size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = new Cell("", styles.get(i));
+        }
+        return row;
+    }
+
+    /**
+     * put the formatted properties of the bean into the cells of newRow().
+     */
+    public void bind(T bean, Cell[] row) {
+        for (int i = 0; i < row.length; i++) {
+            row[i].setContent(format(bean, i));
+        }
+    }
+
+    /**
+     * @return the beans as rows, the binding is compiled if it wasn't.
+     */
+    public BoundRows<T> rows(Iterator<? extends T> beans) throws Exception {
+        compile();
+        return new BoundRows<T>(this, beans);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.bind;
+
+import java.text.DecimalFormat;
+import java.text.Format;
+import java.text.SimpleDateFormat;
+
+/**
+ * Common ValueFormatters, the ones with a pattern hold a Format and are not thread-safe.
+ *
+ * @author Andersen
+ */
+public final class ValueFormatters {
+
+    private ValueFormatters() {
+    }
+
+    /** String.valueOf. */
+    public static final ValueFormatter STRING = new ValueFormatter() {
+
+        public String format(Object value) {
+            return value.toString();
+        }
+    };
+
+    /**
+     * format a Number by a DecimalFormat pattern, e.g. "#,##0.00".
+     */
+    public static ValueFormatter number(String pattern) {
+        return format(new DecimalFormat(pattern));
+    }
+
+    /**
+     * format a Date by a SimpleDateFormat pattern, e.g. "yyyy/MM/dd".
+     */
+    public static ValueFormatter date(String pattern) {
+        return format(new SimpleDateFormat(pattern));
+    }
+
+    public static ValueFormatter format(final Format format) {
+        return new ValueFormatter() {
+
+            public String format(Object value) {
+                return format.format(value);
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.DecimalFormat;
+import java.text.Format;
+import java.text.SimpleDateFormat;
+
+/**
+ * Common ColumnFormatters, the ones with a pattern hold a Format and are not thread-safe.
+ *
+ * @author Andersen
+ */
+public final class ColumnFormatters {
+
+    private ColumnFormatters() {
+    }
+
+    /** ResultSet.getString. */
+    public static final ColumnFormatter STRING = new ColumnFormatter() {
+
+        public String format(ResultSet resultSet, int column) throws SQLException {
+            return resultSet.getString(column);
+        }
+    };
+
+    /**
+     * format a numeric column by a DecimalFormat pattern, e.g. "#,##0.00".
+     */
+    public static ColumnFormatter number(String pattern) {
+        final DecimalFormat format = new DecimalFormat(pattern);
+        return new ColumnFormatter() {
+
+            public String format(ResultSet resultSet, int column) throws SQLException {
+                BigDecimal value = resultSet.getBigDecimal(column);
+                return value == null ? null : format.format(value);
+            }
+        };
+    }
+
+    /**
+     * format a date or timestamp column by a SimpleDateFormat pattern, e.g. "yyyy/MM/dd".
+     */
+    public static ColumnFormatter date(String pattern) {
+        final SimpleDateFormat format = new SimpleDateFormat(pattern);
+        return new ColumnFormatter() {
+
+            public String format(ResultSet resultSet, int column) throws SQLException {
+                Timestamp value = resultSet.getTimestamp(column);
+                return value == null ? null : format.format(value);
+            }
+        };
+    }
+
+    /**
+     * format ResultSet.getObject by any Format.
+     */
+    public static ColumnFormatter format(final Format format) {
+        return new ColumnFormatter() {
+
+            public String format(ResultSet resultSet, int column) throws SQLException {
+                Object value = resultSet.getObject(column);
+                return value == null ? null : format.format(value);
+            }
+        };
+    }
+}
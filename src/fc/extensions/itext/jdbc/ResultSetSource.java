@@ -0,0 +1,243 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.jdbc;
+
+import fc.extensions.itext.smart.AddStatus;
+import fc.extensions.itext.smart.Cell;
+import fc.extensions.itext.smart.CellStyle;
+import fc.extensions.itext.smart.SmartTable;
+import fc.extensions.itext.smart.TableMediator;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stream the rows of a ResultSet into a SmartTable or TableMediator, one table row per record.
+ * Records are read only when there's room for them, so an account never sits fully in memory:
+ * the PdfPTable holds at most a table (or a page of a continuous table, or streamRows) of rows.
+ *
+ * <pre>
+ * ResultSetSource source = new ResultSetSource(resultSet);
+ * source.setFetchSize(500);
+ * source.addColumn("TX_DATE", dateStyle, ColumnFormatters.date("yyyy/MM/dd"));
+ * source.addColumn("MEMO", memoStyle);
+ * source.addColumn("AMOUNT", amountStyle, ColumnFormatters.number("#,##0.00"));
+ * while (!source.isExhausted()) {
+ *     source.fill(mediator);
+ *     mediator.flush();
+ *     writer.newPage();
+ *     mediator = new TableMediator(table, 2, 5F);
+ * }
+ * </pre>
+ *
+ * The ResultSet is not closed by the source.
+ *
+ * @author Andersen
+ */
+public final class ResultSetSource {
+
+    private static final class Column {
+
+        private final String label;
+        private int index;
+        private final CellStyle style;
+        private final ColumnFormatter formatter;
+
+        private Column(String label, int index, CellStyle style, ColumnFormatter formatter) {
+            this.label = label;
+            this.index = index;
+            this.style = style;
+            this.formatter = formatter;
+        }
+    }
+
+    private final ResultSet resultSet;
+    private final List<Column> columns = new ArrayList<Column>();
+    private int fetchSize = 0;
+    private boolean prepared = false;
+    private boolean exhausted = false;
+    private Cell[] row = null;
+    private boolean pending = false;
+    private int rowsRead = 0;
+
+    public ResultSetSource(ResultSet resultSet) {
+        this.resultSet = resultSet;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * rows fetched from the database per round trip, 0 leaves the driver's default.
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public ResultSetSource addColumn(String label, CellStyle style) {
+        return addColumn(label, style, ColumnFormatters.STRING);
+    }
+
+    /**
+     * map a column to the next cell of the row.
+     *
+     * @param label column label, it's looked up once.
+     * @param style the cell style, it also decides DBCS or ANSI font by its font type.
+     */
+    public ResultSetSource addColumn(String label, CellStyle style, ColumnFormatter formatter) {
+        checkNotPrepared();
+        columns.add(new Column(label, 0, style, formatter));
+        return this;
+    }
+
+    /**
+     * @param index index of the column, starts from 1.
+     */
+    public ResultSetSource addColumn(int index, CellStyle style, ColumnFormatter formatter) {
+        checkNotPrepared();
+        columns.add(new Column(null, index, style, formatter));
+        return this;
+    }
+
+    private void checkNotPrepared() {
+        if (prepared) {
+            throw new IllegalStateException("ResultSetSource: columns can't be added after the first fill");
+        }
+    }
+
+    /**
+     * resolve the labels and create the reused cells, all columns as DBCS cells if none was added.
+     */
+    private void prepare() throws SQLException {
+        if (prepared) {
+            return;
+        }
+        if (columns.isEmpty()) {
+            int count = resultSet.getMetaData().getColumnCount();
+            for (int i = 1; i <= count; i++) {
+                columns.add(new Column(null, i, CellStyle.DEFAULT.withFontType(Cell.FontType.DBCS), ColumnFormatters.STRING));
+            }
+        }
+        row = new Cell[columns.size()];
+        for (int i = 0; i < row.length; i++) {
+            Column column = columns.get(i);
+            if (column.label != null) {
+                column.index = resultSet.findColumn(column.label);
+            }
+            row[i] = new Cell("", column.style);
+        }
+        if (fetchSize > 0) {
+            resultSet.setFetchSize(fetchSize);
+        }
+        prepared = true;
+    }
+
+    /**
+     * read the next record into the reused cells.
+     */
+    private boolean next() throws SQLException {
+        if (pending) {
+            return true;
+        }
+        if (exhausted || !resultSet.next()) {
+            exhausted = true;
+            return false;
+        }
+        for (int i = 0; i < row.length; i++) {
+            Column column = columns.get(i);
+            String content = column.formatter.format(resultSet, column.index);
+            row[i].setContent(content == null ? "" : content);
+        }
+        rowsRead++;
+        pending = true;
+        return true;
+    }
+
+    /**
+     * add records until the table is full or the ResultSet is exhausted,
+     * a record which doesn't fit is kept for the next fill.
+     *
+     * @return how many records were added.
+     */
+    public int fill(SmartTable table) throws SQLException {
+        prepare();
+        int added = 0;
+        while (next()) {
+            if (table.tryAddRow(row) == AddStatus.FULL) {
+                break;
+            }
+            pending = false;
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * add records until all mediated tables are full or the ResultSet is exhausted,
+     * a record is never split across the tables.
+     *
+     * @return how many records were added.
+     */
+    public int fill(TableMediator mediator) throws SQLException {
+        prepare();
+        int added = 0;
+        while (next()) {
+            if (mediator.tryAddRow(row) == AddStatus.FULL) {
+                break;
+            }
+            pending = false;
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * @return true if a record read was rejected by the last fill.
+     */
+    public boolean hasPending() {
+        return pending;
+    }
+
+    /**
+     * @return true if there's no pending record and the ResultSet is exhausted.
+     */
+    public boolean isExhausted() {
+        return exhausted && !pending;
+    }
+
+    /**
+     * @return records read from the ResultSet so far.
+     */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+}
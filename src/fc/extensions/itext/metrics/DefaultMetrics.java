@@ -0,0 +1,121 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.metrics;
+
+/**
+ * A MetricsListener keeps striped counters and a histogram of flush times.
+ * Give one to a Writer for metrics per document, or share one between the
+ * Writers of a batch for metrics per batch.
+ *
+ * @author Andersen
+ */
+public class DefaultMetrics implements MetricsListener {
+
+    private final StripedCounter cellsAdded = new StripedCounter();
+    private final StripedCounter cellsRejected = new StripedCounter();
+    private final StripedCounter tableOverflows = new StripedCounter();
+    private final StripedCounter rowsFlushed = new StripedCounter();
+    private final Histogram flushTime = new Histogram();
+    private final StripedCounter pages = new StripedCounter();
+    private final StripedCounter documents = new StripedCounter();
+    private final StripedCounter bytes = new StripedCounter();
+    private final StripedCounter fontCacheHits = new StripedCounter();
+    private final StripedCounter fontCacheMisses = new StripedCounter();
+    private final StripedCounter metricsCacheLookups = new StripedCounter();
+    private final StripedCounter metricsCacheMisses = new StripedCounter();
+
+    public DefaultMetrics() {
+    }
+
+    public void cellsAdded(int cells) {
+        cellsAdded.add(cells);
+    }
+
+    public void cellsRejected(int cells) {
+        cellsRejected.add(cells);
+    }
+
+    public void tableOverflowed() {
+        tableOverflows.increment();
+    }
+
+    public void tableFlushed(int rows, long nanos) {
+        rowsFlushed.add(rows);
+        flushTime.record(nanos);
+    }
+
+    public void pageEmitted(int pageNumber) {
+        pages.increment();
+    }
+
+    public void bytesWritten(long bytes) {
+        documents.increment();
+        this.bytes.add(bytes);
+    }
+
+    public void fontCacheAccess(boolean hit) {
+        if (hit) {
+            fontCacheHits.increment();
+        } else {
+            fontCacheMisses.increment();
+        }
+    }
+
+    public void metricsCacheAccess(int lookups, int misses) {
+        metricsCacheLookups.add(lookups);
+        if (misses > 0) {
+            metricsCacheMisses.add(misses);
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(cellsAdded.sum(), cellsRejected.sum(), tableOverflows.sum(),
+                flushTime.getCount(), rowsFlushed.sum(), flushTime.getTotalNanos(),
+                flushTime.getPercentileMillis(50D), flushTime.getPercentileMillis(99D), flushTime.getMaxMillis(),
+                pages.sum(), documents.sum(), bytes.sum(),
+                fontCacheHits.sum(), fontCacheMisses.sum(), metricsCacheLookups.sum(), metricsCacheMisses.sum());
+    }
+
+    public void reset() {
+        cellsAdded.reset();
+        cellsRejected.reset();
+        tableOverflows.reset();
+        rowsFlushed.reset();
+        flushTime.reset();
+        pages.reset();
+        documents.reset();
+        bytes.reset();
+        fontCacheHits.reset();
+        fontCacheMisses.reset();
+        metricsCacheLookups.reset();
+        metricsCacheMisses.reset();
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.metrics;
+
+/**
+ * A MetricsListener does nothing, extend it to receive some of the events.
+ *
+ * @author Andersen
+ */
+public class MetricsAdapter implements MetricsListener {
+
+    /** the listener of a Writer when none is given. */
+    public static final MetricsListener NONE = new MetricsAdapter();
+
+    public void cellsAdded(int cells) {
+    }
+
+    public void cellsRejected(int cells) {
+    }
+
+    public void tableOverflowed() {
+    }
+
+    public void tableFlushed(int rows, long nanos) {
+    }
+
+    public void pageEmitted(int pageNumber) {
+    }
+
+    public void bytesWritten(long bytes) {
+    }
+
+    public void fontCacheAccess(boolean hit) {
+    }
+
+    public void metricsCacheAccess(int lookups, int misses) {
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.metrics;
+
+/**
+ * Receives what happens inside a Writer and its tables.
+ *
+ * The methods are called on the hot paths, implementations must be cheap and
+ * thread-safe if they are shared between Writers.
+ *
+ * @author Andersen
+ * @see MetricsAdapter
+ * @see DefaultMetrics
+ */
+public interface MetricsListener {
+
+    /**
+     * cells added to a SmartTable, a cell with column span counts its columns.
+     */
+    void cellsAdded(int cells);
+
+    /**
+     * cells rejected by a SmartTable because it was full.
+     */
+    void cellsRejected(int cells);
+
+    /**
+     * a TableMediator moved to its next table because the current one was full.
+     */
+    void tableOverflowed();
+
+    /**
+     * Writer.flushTable wrote rows of a table.
+     */
+    void tableFlushed(int rows, long nanos);
+
+    /**
+     * a page was finished.
+     */
+    void pageEmitted(int pageNumber);
+
+    /**
+     * the document was closed with the bytes of the pdf file.
+     */
+    void bytesWritten(long bytes);
+
+    /**
+     * a Font was looked up by size, hit if it was cached by the Writer.
+     */
+    void fontCacheAccess(boolean hit);
+
+    /**
+     * glyph widths were looked up in the FontMetrics, misses were loaded from the font.
+     * The misses are approximate when the FontMetrics is shared by Writers of other threads.
+     */
+    void metricsCacheAccess(int lookups, int misses);
+}
@@ -0,0 +1,185 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Values of a DefaultMetrics at a moment.
+ *
+ * @author Andersen
+ */
+public final class MetricsSnapshot {
+
+    private final long cellsAdded;
+    private final long cellsRejected;
+    private final long tableOverflows;
+    private final long flushes;
+    private final long rowsFlushed;
+    private final long flushNanos;
+    private final double flushP50Millis;
+    private final double flushP99Millis;
+    private final double flushMaxMillis;
+    private final long pages;
+    private final long documents;
+    private final long bytesWritten;
+    private final long fontCacheHits;
+    private final long fontCacheMisses;
+    private final long metricsCacheLookups;
+    private final long metricsCacheMisses;
+
+    MetricsSnapshot(long cellsAdded, long cellsRejected, long tableOverflows,
+            long flushes, long rowsFlushed, long flushNanos,
+            double flushP50Millis, double flushP99Millis, double flushMaxMillis,
+            long pages, long documents, long bytesWritten,
+            long fontCacheHits, long fontCacheMisses, long metricsCacheLookups, long metricsCacheMisses) {
+        this.cellsAdded = cellsAdded;
+        this.cellsRejected = cellsRejected;
+        this.tableOverflows = tableOverflows;
+        this.flushes = flushes;
+        this.rowsFlushed = rowsFlushed;
+        this.flushNanos = flushNanos;
+        this.flushP50Millis = flushP50Millis;
+        this.flushP99Millis = flushP99Millis;
+        this.flushMaxMillis = flushMaxMillis;
+        this.pages = pages;
+        this.documents = documents;
+        this.bytesWritten = bytesWritten;
+        this.fontCacheHits = fontCacheHits;
+        this.fontCacheMisses = fontCacheMisses;
+        this.metricsCacheLookups = metricsCacheLookups;
+        this.metricsCacheMisses = metricsCacheMisses;
+    }
+
+    public long getCellsAdded() {
+        return cellsAdded;
+    }
+
+    public long getCellsRejected() {
+        return cellsRejected;
+    }
+
+    public long getTableOverflows() {
+        return tableOverflows;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public long getRowsFlushed() {
+        return rowsFlushed;
+    }
+
+    public double getFlushMillis() {
+        return flushNanos / 1000000D;
+    }
+
+    public double getFlushP50Millis() {
+        return flushP50Millis;
+    }
+
+    public double getFlushP99Millis() {
+        return flushP99Millis;
+    }
+
+    public double getFlushMaxMillis() {
+        return flushMaxMillis;
+    }
+
+    public long getPages() {
+        return pages;
+    }
+
+    public long getDocuments() {
+        return documents;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getFontCacheHits() {
+        return fontCacheHits;
+    }
+
+    public long getFontCacheMisses() {
+        return fontCacheMisses;
+    }
+
+    public double getFontCacheHitRate() {
+        return rate(fontCacheHits, fontCacheHits + fontCacheMisses);
+    }
+
+    public long getMetricsCacheLookups() {
+        return metricsCacheLookups;
+    }
+
+    public long getMetricsCacheMisses() {
+        return metricsCacheMisses;
+    }
+
+    public double getMetricsCacheHitRate() {
+        return rate(Math.max(metricsCacheLookups - metricsCacheMisses, 0L), metricsCacheLookups);
+    }
+
+    private static double rate(long part, long total) {
+        return total == 0L ? 1D : (double) part / total;
+    }
+
+    /**
+     * @return name and value of every metric, in a stable order for exporting.
+     */
+    public Map<String, Number> toMap() {
+        Map<String, Number> map = new LinkedHashMap<String, Number>();
+        map.put("cellsAdded", cellsAdded);
+        map.put("cellsRejected", cellsRejected);
+        map.put("tableOverflows", tableOverflows);
+        map.put("flushes", flushes);
+        map.put("rowsFlushed", rowsFlushed);
+        map.put("flushMillis", getFlushMillis());
+        map.put("flushP50Millis", flushP50Millis);
+        map.put("flushP99Millis", flushP99Millis);
+        map.put("flushMaxMillis", flushMaxMillis);
+        map.put("pages", pages);
+        map.put("documents", documents);
+        map.put("bytesWritten", bytesWritten);
+        map.put("fontCacheHitRate", getFontCacheHitRate());
+        map.put("metricsCacheHitRate", getMetricsCacheHitRate());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
@@ -58,11 +58,10 @@ public class Cell {
         public static final int DBCS = 2;
     }
 
-    private PdfPCell pdfPCell = null;
+    private CellStyle style = CellStyle.DEFAULT;
     private String content = "";
-    private int fontSize = 8;
     private float maxWidth = -1F;
-    private int fontType = FontType.NORMAL;
+    private PdfPCell pdfPCell = null;
 
     public Cell() {
         this("", 0F, 8, 1);
@@ -86,34 +85,62 @@ public class Cell {
 
     public Cell(String content, float borderWidth, int fontSize, int columnSpan) {
         this.content = content;
-        this.fontSize = fontSize;
-        pdfPCell = new PdfPCell();
-        pdfPCell.setBorderWidth(borderWidth);
-        pdfPCell.setColspan(columnSpan);
+        this.style = CellStyle.DEFAULT.with(borderWidth, fontSize, columnSpan);
+    }
+
+    /**
+     * a cell of a shared style, nothing else is allocated.
+     */
+    public Cell(String content, CellStyle style) {
+        this.content = content;
+        this.style = style;
+    }
+
+    public CellStyle getStyle() {
+        return style;
     }
 
+    public void setStyle(CellStyle style) {
+        this.style = style;
+    }
+
+    /**
+     * The cell gets its own PdfPCell of the style, the changes on it (background, rowspan...) are written
+     * with the cell. Call it after the style setters, the PdfPCell doesn't follow them.
+     * A cell which never calls it shares the PdfPCell of its style.
+     */
     public PdfPCell getPdfPCell() {
+        if (pdfPCell == null) {
+            pdfPCell = style.newPdfPCell();
+        }
         return pdfPCell;
     }
+
+    /**
+     * @return true if the cell is written from its own PdfPCell, see getPdfPCell().
+     */
+    public boolean hasPdfPCell() {
+        return pdfPCell != null;
+    }
     
     public int getFontType() {
-        return fontType;
+        return style.getFontType();
     }
 
     public void setFontType(int fontType) {
-        this.fontType = fontType;
+        style = style.withFontType(fontType);
     }
 
     public void setFollowingIndent(float followingindent) {
-        pdfPCell.setFollowingIndent(followingindent);
+        style = style.withFollowingIndent(followingindent);
     }
     
     public void setIndent(float indent) {
-        pdfPCell.setIndent(indent);
+        style = style.withIndent(indent);
     }
 
     public void setLeading(float fixedLeading, float multipliedLeading) {
-        pdfPCell.setLeading(fixedLeading, multipliedLeading);
+        style = style.withLeading(fixedLeading, multipliedLeading);
     }
     
     /**
@@ -122,7 +149,7 @@ public class Cell {
      * LEFT, RIGHT, TOP, BOTTOM</CODE>.
      */
     public void setBorder(int borderType) {
-        pdfPCell.setBorder(borderType);
+        style = style.withBorder(borderType);
     }
 
     /**
@@ -131,71 +158,71 @@ public class Cell {
      * @param padding
      */
     public void setPadding(float padding) {
-        pdfPCell.setPadding(padding);
+        style = style.withPadding(padding);
     }
     
     public float getPaddingLeft() {
-        return pdfPCell.getPaddingLeft();
+        return style.getPaddingLeft();
     }
 
     public void setPaddingLeft(float padding) {
-        pdfPCell.setPaddingLeft(padding);
+        style = style.withPaddingLeft(padding);
     }
     
     public float getPaddingRight() {
-        return pdfPCell.getPaddingRight();
+        return style.getPaddingRight();
     }
 
     public void setPaddingRight(float padding) {
-        pdfPCell.setPaddingRight(padding);
+        style = style.withPaddingRight(padding);
     }
 
     public void setPaddingTop(float padding) {
-        pdfPCell.setPaddingTop(padding);
+        style = style.withPaddingTop(padding);
     }
 
     public void setPaddingBottom(float padding) {
-        pdfPCell.setPaddingBottom(padding);
+        style = style.withPaddingBottom(padding);
     }    
     
     public void setUseBorderPadding(boolean use) {
-        pdfPCell.setUseBorderPadding(use);
+        style = style.withUseBorderPadding(use);
     }
     
     public void setUseAscender(boolean use) {
-        pdfPCell.setUseAscender(use);
+        style = style.withUseAscender(use);
     }
 
     public void setUseDescender(boolean use) {
-        pdfPCell.setUseDescender(use);
+        style = style.withUseDescender(use);
     }    
     
     public void setHorizontalAlignment(int horizontalAlignment) {
-        pdfPCell.setHorizontalAlignment(horizontalAlignment);
+        style = style.withHorizontalAlignment(horizontalAlignment);
     }
 
     public void setVerticalAlignment(int verticalAlignment) {
-        pdfPCell.setVerticalAlignment(verticalAlignment);
+        style = style.withVerticalAlignment(verticalAlignment);
     }    
 
     public float getFixedHeight() {
-        return pdfPCell.getFixedHeight();
+        return style.getFixedHeight();
     }
 
     public void setFixedHeight(float fixedHeight) {
-        pdfPCell.setFixedHeight(fixedHeight);
+        style = style.withFixedHeight(fixedHeight);
     }
 
     public void setBorderWidth(float borderWidth) {
-        pdfPCell.setBorderWidth(borderWidth);
+        style = style.withBorderWidth(borderWidth);
     }
 
     public int getColspan() {
-        return pdfPCell.getColspan();
+        return style.getColspan();
     }
 
     public void setColspan(int columnSpan) {
-        pdfPCell.setColspan(columnSpan);
+        style = style.withColspan(columnSpan);
     }
 
     public String getContent() {
@@ -207,11 +234,11 @@ public class Cell {
     }
 
     public int getFontSize() {
-        return fontSize;
+        return style.getFontSize();
     }
 
     public void setFontSize(int fontSize) {
-        this.fontSize = fontSize;
+        style = style.withFontSize(fontSize);
     }
 
     public float getMaxWidth() {
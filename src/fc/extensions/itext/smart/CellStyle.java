@@ -0,0 +1,427 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.smart;
+
+import com.itextpdf.text.pdf.PdfPCell;
+
+/**
+ * The immutable look of a Cell: font, border, padding, alignment and leading.
+ * Styles are interned by the StyleRegistry, every with*() method returns the shared instance
+ * (while the bounded registry has room), so a table of a million cells holds only a handful of styles.
+ *
+ * The PdfPCell is materialised by Writer.addCell when the cell is written.
+ *
+ * @author Andersen
+ */
+public final class CellStyle {
+
+    /** a new PdfPCell with 8 points font, no border width and one column. */
+    public static final CellStyle DEFAULT;
+
+    static {
+        CellStyle style = new CellStyle(new PdfPCell());
+        style.fontSize = 8;
+        style.fontType = Cell.FontType.NORMAL;
+        style.borderWidth = 0F;
+        style.colspan = 1;
+        DEFAULT = style.intern();
+    }
+
+    private int fontSize;
+    private int fontType;
+    private int colspan;
+    private int border;
+    private float borderWidth;
+    private float paddingLeft;
+    private float paddingRight;
+    private float paddingTop;
+    private float paddingBottom;
+    private boolean useBorderPadding;
+    private boolean useAscender;
+    private boolean useDescender;
+    private int horizontalAlignment;
+    private int verticalAlignment;
+    private float fixedHeight;
+    private float fixedLeading;
+    private float multipliedLeading;
+    private float indent;
+    private float followingIndent;
+    private int hash;
+
+    private CellStyle(PdfPCell cell) {
+        colspan = cell.getColspan();
+        border = cell.getBorder();
+        borderWidth = cell.getBorderWidth();
+        paddingLeft = cell.getPaddingLeft();
+        paddingRight = cell.getPaddingRight();
+        paddingTop = cell.getPaddingTop();
+        paddingBottom = cell.getPaddingBottom();
+        useBorderPadding = cell.isUseBorderPadding();
+        useAscender = cell.isUseAscender();
+        useDescender = cell.isUseDescender();
+        horizontalAlignment = cell.getHorizontalAlignment();
+        verticalAlignment = cell.getVerticalAlignment();
+        fixedHeight = cell.getFixedHeight();
+        fixedLeading = cell.getLeading();
+        multipliedLeading = cell.getMultipliedLeading();
+        indent = cell.getIndent();
+        followingIndent = cell.getFollowingIndent();
+    }
+
+    private CellStyle(CellStyle style) {
+        fontSize = style.fontSize;
+        fontType = style.fontType;
+        colspan = style.colspan;
+        border = style.border;
+        borderWidth = style.borderWidth;
+        paddingLeft = style.paddingLeft;
+        paddingRight = style.paddingRight;
+        paddingTop = style.paddingTop;
+        paddingBottom = style.paddingBottom;
+        useBorderPadding = style.useBorderPadding;
+        useAscender = style.useAscender;
+        useDescender = style.useDescender;
+        horizontalAlignment = style.horizontalAlignment;
+        verticalAlignment = style.verticalAlignment;
+        fixedHeight = style.fixedHeight;
+        fixedLeading = style.fixedLeading;
+        multipliedLeading = style.multipliedLeading;
+        indent = style.indent;
+        followingIndent = style.followingIndent;
+    }
+
+    private CellStyle copy() {
+        return new CellStyle(this);
+    }
+
+    private CellStyle intern() {
+        hash = computeHash();
+        return StyleRegistry.getDefault().intern(this);
+    }
+
+    /**
+     * @return a new PdfPCell of this style, without content.
+     */
+    public PdfPCell newPdfPCell() {
+        PdfPCell cell = new PdfPCell();
+        cell.setBorder(border);
+        cell.setBorderWidth(borderWidth);
+        cell.setColspan(colspan);
+        cell.setPaddingLeft(paddingLeft);
+        cell.setPaddingRight(paddingRight);
+        cell.setPaddingTop(paddingTop);
+        cell.setPaddingBottom(paddingBottom);
+        cell.setUseBorderPadding(useBorderPadding);
+        cell.setUseAscender(useAscender);
+        cell.setUseDescender(useDescender);
+        cell.setHorizontalAlignment(horizontalAlignment);
+        cell.setVerticalAlignment(verticalAlignment);
+        cell.setFixedHeight(fixedHeight);
+        cell.setLeading(fixedLeading, multipliedLeading);
+        cell.setIndent(indent);
+        cell.setFollowingIndent(followingIndent);
+        return cell;
+    }
+
+    /**
+     * the common case of the Cell constructors in one registry lookup.
+     */
+    public CellStyle with(float borderWidth, int fontSize, int colspan) {
+        if (this.borderWidth == borderWidth && this.fontSize == fontSize && this.colspan == colspan) {
+            return this;
+        }
+        CellStyle style = copy();
+        style.borderWidth = borderWidth;
+        style.fontSize = fontSize;
+        style.colspan = colspan;
+        return style.intern();
+    }
+
+    public CellStyle withFontSize(int fontSize) {
+        CellStyle style = copy();
+        style.fontSize = fontSize;
+        return style.intern();
+    }
+
+    public CellStyle withFontType(int fontType) {
+        CellStyle style = copy();
+        style.fontType = fontType;
+        return style.intern();
+    }
+
+    public CellStyle withColspan(int colspan) {
+        CellStyle style = copy();
+        style.colspan = colspan;
+        return style.intern();
+    }
+
+    public CellStyle withBorder(int border) {
+        CellStyle style = copy();
+        style.border = border;
+        return style.intern();
+    }
+
+    public CellStyle withBorderWidth(float borderWidth) {
+        CellStyle style = copy();
+        style.borderWidth = borderWidth;
+        return style.intern();
+    }
+
+    public CellStyle withPadding(float padding) {
+        CellStyle style = copy();
+        style.paddingLeft = padding;
+        style.paddingRight = padding;
+        style.paddingTop = padding;
+        style.paddingBottom = padding;
+        return style.intern();
+    }
+
+    public CellStyle withPaddingLeft(float padding) {
+        CellStyle style = copy();
+        style.paddingLeft = padding;
+        return style.intern();
+    }
+
+    public CellStyle withPaddingRight(float padding) {
+        CellStyle style = copy();
+        style.paddingRight = padding;
+        return style.intern();
+    }
+
+    public CellStyle withPaddingTop(float padding) {
+        CellStyle style = copy();
+        style.paddingTop = padding;
+        return style.intern();
+    }
+
+    public CellStyle withPaddingBottom(float padding) {
+        CellStyle style = copy();
+        style.paddingBottom = padding;
+        return style.intern();
+    }
+
+    public CellStyle withUseBorderPadding(boolean use) {
+        CellStyle style = copy();
+        style.useBorderPadding = use;
+        return style.intern();
+    }
+
+    public CellStyle withUseAscender(boolean use) {
+        CellStyle style = copy();
+        style.useAscender = use;
+        return style.intern();
+    }
+
+    public CellStyle withUseDescender(boolean use) {
+        CellStyle style = copy();
+        style.useDescender = use;
+        return style.intern();
+    }
+
+    public CellStyle withHorizontalAlignment(int horizontalAlignment) {
+        CellStyle style = copy();
+        style.horizontalAlignment = horizontalAlignment;
+        return style.intern();
+    }
+
+    public CellStyle withVerticalAlignment(int verticalAlignment) {
+        CellStyle style = copy();
+        style.verticalAlignment = verticalAlignment;
+        return style.intern();
+    }
+
+    public CellStyle withFixedHeight(float fixedHeight) {
+        CellStyle style = copy();
+        style.fixedHeight = fixedHeight;
+        return style.intern();
+    }
+
+    public CellStyle withLeading(float fixedLeading, float multipliedLeading) {
+        CellStyle style = copy();
+        style.fixedLeading = fixedLeading;
+        style.multipliedLeading = multipliedLeading;
+        return style.intern();
+    }
+
+    public CellStyle withIndent(float indent) {
+        CellStyle style = copy();
+        style.indent = indent;
+        return style.intern();
+    }
+
+    public CellStyle withFollowingIndent(float followingIndent) {
+        CellStyle style = copy();
+        style.followingIndent = followingIndent;
+        return style.intern();
+    }
+
+    public int getFontSize() {
+        return fontSize;
+    }
+
+    public int getFontType() {
+        return fontType;
+    }
+
+    public int getColspan() {
+        return colspan;
+    }
+
+    public int getBorder() {
+        return border;
+    }
+
+    public float getBorderWidth() {
+        return borderWidth;
+    }
+
+    public float getPaddingLeft() {
+        return paddingLeft;
+    }
+
+    public float getPaddingRight() {
+        return paddingRight;
+    }
+
+    public float getPaddingTop() {
+        return paddingTop;
+    }
+
+    public float getPaddingBottom() {
+        return paddingBottom;
+    }
+
+    public boolean isUseBorderPadding() {
+        return useBorderPadding;
+    }
+
+    public boolean isUseAscender() {
+        return useAscender;
+    }
+
+    public boolean isUseDescender() {
+        return useDescender;
+    }
+
+    public int getHorizontalAlignment() {
+        return horizontalAlignment;
+    }
+
+    public int getVerticalAlignment() {
+        return verticalAlignment;
+    }
+
+    public float getFixedHeight() {
+        return fixedHeight;
+    }
+
+    public float getFixedLeading() {
+        return fixedLeading;
+    }
+
+    public float getMultipliedLeading() {
+        return multipliedLeading;
+    }
+
+    public float getIndent() {
+        return indent;
+    }
+
+    public float getFollowingIndent() {
+        return followingIndent;
+    }
+
+    private int computeHash() {
+        int h = fontSize;
+        h = 31 * h + fontType;
+        h = 31 * h + colspan;
+        h = 31 * h + border;
+        h = 31 * h + Float.floatToIntBits(borderWidth);
+        h = 31 * h + Float.floatToIntBits(paddingLeft);
+        h = 31 * h + Float.floatToIntBits(paddingRight);
+        h = 31 * h + Float.floatToIntBits(paddingTop);
+        h = 31 * h + Float.floatToIntBits(paddingBottom);
+        h = 31 * h + (useBorderPadding ? 1 : 0);
+        h = 31 * h + (useAscender ? 1 : 0);
+        h = 31 * h + (useDescender ? 1 : 0);
+        h = 31 * h + horizontalAlignment;
+        h = 31 * h + verticalAlignment;
+        h = 31 * h + Float.floatToIntBits(fixedHeight);
+        h = 31 * h + Float.floatToIntBits(fixedLeading);
+        h = 31 * h + Float.floatToIntBits(multipliedLeading);
+        h = 31 * h + Float.floatToIntBits(indent);
+        h = 31 * h + Float.floatToIntBits(followingIndent);
+        return h;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CellStyle)) {
+            return false;
+        }
+        CellStyle other = (CellStyle) obj;
+        return hash == other.hash
+                && fontSize == other.fontSize
+                && fontType == other.fontType
+                && colspan == other.colspan
+                && border == other.border
+                && Float.floatToIntBits(borderWidth) == Float.floatToIntBits(other.borderWidth)
+                && Float.floatToIntBits(paddingLeft) == Float.floatToIntBits(other.paddingLeft)
+                && Float.floatToIntBits(paddingRight) == Float.floatToIntBits(other.paddingRight)
+                && Float.floatToIntBits(paddingTop) == Float.floatToIntBits(other.paddingTop)
+                && Float.floatToIntBits(paddingBottom) == Float.floatToIntBits(other.paddingBottom)
+                && useBorderPadding == other.useBorderPadding
+                && useAscender == other.useAscender
+                && useDescender == other.useDescender
+                && horizontalAlignment == other.horizontalAlignment
+                && verticalAlignment == other.verticalAlignment
+                && Float.floatToIntBits(fixedHeight) == Float.floatToIntBits(other.fixedHeight)
+                && Float.floatToIntBits(fixedLeading) == Float.floatToIntBits(other.fixedLeading)
+                && Float.floatToIntBits(multipliedLeading) == Float.floatToIntBits(other.multipliedLeading)
+                && Float.floatToIntBits(indent) == Float.floatToIntBits(other.indent)
+                && Float.floatToIntBits(followingIndent) == Float.floatToIntBits(other.followingIndent);
+    }
+
+    @Override
+    public String toString() {
+        return "[fontSize: " + fontSize + " ,fontType: " + fontType + " ,colspan: " + colspan
+                + " ,border: " + border + " ,borderWidth: " + borderWidth
+                + " ,padding: " + paddingLeft + "/" + paddingRight + "/" + paddingTop + "/" + paddingBottom
+                + " ,alignment: " + horizontalAlignment + "/" + verticalAlignment + "]";
+    }
+}
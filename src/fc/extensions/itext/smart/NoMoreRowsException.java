@@ -29,6 +29,16 @@
  */
 package fc.extensions.itext.smart;
 
+/**
+ * Thrown when a Position runs out of rows.
+ * It's a control-flow signal, so it carries no stack trace and a shared instance is used.
+ */
 public class NoMoreRowsException extends Exception {
 
+    static final NoMoreRowsException INSTANCE = new NoMoreRowsException();
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
 }
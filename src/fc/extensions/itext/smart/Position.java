@@ -124,7 +124,7 @@ public final class Position {
     public void decreaseRowsEx(int iRows) throws NoMoreRowsException {
         rows -= iRows;
         if (rows <= 0) {
-            throw new NoMoreRowsException();
+            throw NoMoreRowsException.INSTANCE;
         }
     }
 
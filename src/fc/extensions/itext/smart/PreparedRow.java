@@ -0,0 +1,72 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.smart;
+
+import com.itextpdf.text.pdf.PdfPRow;
+import java.util.Arrays;
+
+/**
+ * A row laid out by a RowPipeline worker: the cells with their phrases,
+ * the column widths and the height, the table only appends it.
+ *
+ * @author Andersen
+ */
+final class PreparedRow {
+
+    private final PdfPRow row;
+    private final int cells;
+    private float[] widths;
+
+    PreparedRow(PdfPRow row, int cells, float[] widths) {
+        this.row = row;
+        this.cells = cells;
+        this.widths = widths;
+        row.setWidths(widths);
+        row.getMaxHeights();
+    }
+
+    /**
+     * @return the row laid out for the widths, it's measured again only if they're different.
+     */
+    PdfPRow fit(float[] widths) {
+        if (this.widths != widths && !Arrays.equals(this.widths, widths)) {
+            this.widths = widths;
+            row.setWidths(widths);
+        }
+        return row;
+    }
+
+    /**
+     * @return cells with content, the empty cells completing the row are not counted.
+     */
+    int getCells() {
+        return cells;
+    }
+}
@@ -0,0 +1,296 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.smart;
+
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPRow;
+import fc.extensions.itext.Writer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Prepare the rows of a SmartTable or TableMediator in parallel: formatting, fonts,
+ * cells, line breaking and row heights are done by the workers of a ForkJoinPool.
+ * Only appending the rows in order stays on the calling thread, so the output is the same as
+ * adding the rows one by one. The next batch is prepared while the current one is appended.
+ *
+ * <pre>
+ * RowPipeline&lt;Transaction&gt; pipeline = new RowPipeline&lt;Transaction&gt;(transactions.iterator(), formatter, styles);
+ * while (!pipeline.isExhausted()) {
+ *     pipeline.fill(mediator);
+ *     ...
+ * }
+ * </pre>
+ *
+ * A pipeline is driven by one thread, the items are read by it as well.
+ *
+ * @author Andersen
+ */
+public final class RowPipeline<T> {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    /** rows prepared by a task without forking. */
+    private static final int THRESHOLD = 16;
+
+    private static ForkJoinPool defaultPool = null;
+
+    private final Iterator<? extends T> items;
+    private final RowFormatter<T> formatter;
+    private final CellStyle[] styles;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private final ArrayDeque<PreparedRow> ready = new ArrayDeque<PreparedRow>();
+    private ForkJoinTask<PreparedRow[]> next = null;
+    private Font[] fonts = null;
+    private PdfPCell[] prototypes = null;
+    private PdfPCell emptyCell = null;
+    private float[] widths = null;
+    private int columns = 0;
+
+    public RowPipeline(Iterator<? extends T> items, RowFormatter<T> formatter, CellStyle[] styles) {
+        this(items, formatter, styles, null, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param styles style of each column, they decide fonts, colspans and padding.
+     * @param pool null to use a pool of all processors shared by pipelines.
+     * @param batchSize rows prepared ahead, memory is bound by about twice of it.
+     */
+    public RowPipeline(Iterator<? extends T> items, RowFormatter<T> formatter, CellStyle[] styles, ForkJoinPool pool, int batchSize) {
+        this.items = items;
+        this.formatter = formatter;
+        this.styles = styles.clone();
+        this.pool = pool == null ? defaultPool() : pool;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    private static synchronized ForkJoinPool defaultPool() {
+        if (defaultPool == null) {
+            defaultPool = new ForkJoinPool();
+        }
+        return defaultPool;
+    }
+
+    /**
+     * take fonts, cell prototypes and column widths of the table, the rows prepared later fit it.
+     */
+    private void layoutFor(SmartTable table) {
+        float[] tableWidths = table.absoluteWidths();
+        if (fonts == null) {
+            Writer writer = table.getWriter();
+            int spans = 0;
+            fonts = new Font[styles.length];
+            prototypes = new PdfPCell[styles.length];
+            for (int i = 0; i < styles.length; i++) {
+                fonts[i] = writer.getFont(styles[i].getFontSize(), styles[i].getFontType());
+                prototypes[i] = styles[i].newPdfPCell();
+                spans += styles[i].getColspan();
+            }
+            columns = tableWidths.length;
+            if (spans > columns) {
+                throw new IllegalArgumentException("RowPipeline: a row has at most " + columns + " cells, got " + spans);
+            }
+            emptyCell = table.emptyCell();
+        }
+        widths = tableWidths;
+    }
+
+    /**
+     * @return rows ready to be appended, false if the items are exhausted.
+     */
+    private boolean refill() {
+        if (next == null) {
+            next = submit();
+        }
+        if (next == null) {
+            return false;
+        }
+        PreparedRow[] rows = next.join();
+        next = submit();
+        for (PreparedRow row : rows) {
+            ready.add(row);
+        }
+        return true;
+    }
+
+    /**
+     * take the next batch of items on the calling thread and prepare it in the pool.
+     */
+    private ForkJoinTask<PreparedRow[]> submit() {
+        if (!items.hasNext()) {
+            return null;
+        }
+        Object[] batch = new Object[batchSize];
+        int count = 0;
+        while (count < batchSize && items.hasNext()) {
+            batch[count++] = items.next();
+        }
+        final PreparedRow[] rows = new PreparedRow[count];
+        final PrepareTask task = new PrepareTask(batch, rows, 0, count, widths);
+        return pool.submit(new ForkJoinTask<PreparedRow[]>() {
+
+            private PreparedRow[] result = null;
+
+            @Override
+            public PreparedRow[] getRawResult() {
+                return result;
+            }
+
+            @Override
+            protected void setRawResult(PreparedRow[] value) {
+                result = value;
+            }
+
+            @Override
+            protected boolean exec() {
+                task.invoke();
+                result = rows;
+                return true;
+            }
+        });
+    }
+
+    private final class PrepareTask extends RecursiveAction {
+
+        private final Object[] batch;
+        private final PreparedRow[] rows;
+        private final int from;
+        private final int to;
+        private final float[] widths;
+
+        private PrepareTask(Object[] batch, PreparedRow[] rows, int from, int to, float[] widths) {
+            this.batch = batch;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.widths = widths;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                String[] contents = new String[styles.length];
+                for (int i = from; i < to; i++) {
+                    rows[i] = prepare(batch[i], contents, widths);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PrepareTask(batch, rows, from, middle, widths), new PrepareTask(batch, rows, middle, to, widths));
+        }
+    }
+
+    /**
+     * the same cells PdfPTable.addCell and completeRow would make, laid out for the widths.
+     */
+    @SuppressWarnings("unchecked")
+    private PreparedRow prepare(Object item, String[] contents, float[] widths) {
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = null;
+        }
+        formatter.format((T) item, contents);
+        PdfPCell[] cells = new PdfPCell[columns];
+        int column = 0;
+        for (int i = 0; i < styles.length; i++) {
+            PdfPCell cell = new PdfPCell(prototypes[i]);
+            cell.setPhrase(new Phrase(contents[i] == null ? "" : contents[i], fonts[i]));
+            cells[column] = cell;
+            column += Math.max(cell.getColspan(), 1);
+        }
+        while (column < columns) {
+            cells[column++] = new PdfPCell(emptyCell);
+        }
+        return new PreparedRow(new PdfPRow(cells), styles.length, widths);
+    }
+
+    /**
+     * append rows until the table is full or the items are exhausted,
+     * a row which doesn't fit is kept for the next fill.
+     *
+     * @return how many rows were added.
+     */
+    public int fill(SmartTable table) {
+        int added = 0;
+        while (true) {
+            if (ready.isEmpty()) {
+                layoutFor(table);
+                if (!refill()) {
+                    break;
+                }
+            }
+            if (table.tryAddRow(ready.peek()) == AddStatus.FULL) {
+                break;
+            }
+            ready.poll();
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * append rows until all mediated tables are full or the items are exhausted,
+     * a row is never split across the tables.
+     *
+     * @return how many rows were added.
+     */
+    public int fill(TableMediator mediator) {
+        int added = 0;
+        while (true) {
+            if (ready.isEmpty()) {
+                SmartTable table = mediator.getCurrentTable();
+                if (table == null) {
+                    break;
+                }
+                layoutFor(table);
+                if (!refill()) {
+                    break;
+                }
+            }
+            if (mediator.tryAddRow(ready.peek()) == AddStatus.FULL) {
+                break;
+            }
+            ready.poll();
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * @return true if all items were appended.
+     */
+    public boolean isExhausted() {
+        return ready.isEmpty() && next == null && !items.hasNext();
+    }
+}
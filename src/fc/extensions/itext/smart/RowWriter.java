@@ -0,0 +1,119 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.smart;
+
+import java.util.Arrays;
+
+/**
+ * Collect the contents of a row in a reused buffer and add them as one row,
+ * to a SmartTable or a TableMediator.
+ *
+ * <pre>
+ * RowWriter row = mediator.newRowWriter(true);
+ * row.add(date).add(item).add(amount).commit();
+ * </pre>
+ *
+ * @author Andersen
+ */
+public final class RowWriter {
+
+    private final SmartTable table;
+    private final TableMediator mediator;
+    private final boolean ansi;
+    private final CharSequence[] buffer;
+    private int count = 0;
+
+    RowWriter(SmartTable table, TableMediator mediator, int columns, boolean ansi) {
+        this.table = table;
+        this.mediator = mediator;
+        this.ansi = ansi;
+        this.buffer = new CharSequence[columns];
+    }
+
+    /**
+     * put the content to the next column.
+     */
+    public RowWriter add(CharSequence content) {
+        if (count == buffer.length) {
+            throw new IllegalStateException("RowWriter: the row has " + buffer.length + " columns only");
+        }
+        buffer[count++] = content;
+        return this;
+    }
+
+    /**
+     * leave the next column empty.
+     */
+    public RowWriter skip() {
+        return add(null);
+    }
+
+    /**
+     * add the collected contents as one row, the buffer is cleared unless the row was rejected.
+     *
+     * @return FULL if the row was rejected, it's kept for commit(SmartTable) or commit(TableMediator).
+     */
+    public AddStatus commit() {
+        return committed(table != null ? table.tryAddRow(buffer, count, ansi) : mediator.tryAddRow(buffer, count, ansi));
+    }
+
+    /**
+     * add the collected contents as one row to another table, e.g. the one of the next page.
+     */
+    public AddStatus commit(SmartTable table) {
+        return committed(table.tryAddRow(buffer, count, ansi));
+    }
+
+    /**
+     * add the collected contents as one row to the tables of another mediator.
+     */
+    public AddStatus commit(TableMediator mediator) {
+        return committed(mediator.tryAddRow(buffer, count, ansi));
+    }
+
+    private AddStatus committed(AddStatus status) {
+        if (status != AddStatus.FULL) {
+            clear();
+        }
+        return status;
+    }
+
+    public void clear() {
+        Arrays.fill(buffer, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * @return contents collected for the current row.
+     */
+    public int size() {
+        return count;
+    }
+}
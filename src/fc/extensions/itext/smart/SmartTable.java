@@ -31,12 +31,16 @@
 package fc.extensions.itext.smart;
 
 import com.itextpdf.text.DocumentException;
+import fc.extensions.itext.FontMetrics;
+import fc.extensions.itext.LineBreaker;
 import fc.extensions.itext.Writer;
+import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ListIterator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.apache.commons.beanutils.locale.LocaleBeanUtils;
 
 /**
  * A PdfPTable wrapper supports more functions.
@@ -45,6 +49,17 @@ import org.apache.commons.beanutils.locale.LocaleBeanUtils;
  */
 public final class SmartTable {
 
+    /**
+     * How the table decides it's full.
+     */
+    public static enum Capacity {
+
+        /** columns * rows cells. */
+        CELLS,
+        /** the rows must fit in the height of the position, the rows limit is ignored. */
+        HEIGHT
+    }
+
     private boolean created = false,  flushed = false;
     private float borderWidth = 0f;
     private int columns = 0;
@@ -59,6 +74,22 @@ public final class SmartTable {
     private int rowFixedHeight = 14;
     private int cellFontSize = 9;
     private boolean autoFlush = true;
+    private int streamRows = 0;
+    private boolean streamStarted = false;
+    private boolean continuous = false;
+    private int headerRows = 0;
+    private float continuationTop = -1F;
+    private int measuredRows = 0;
+    private float pendingHeight = 0F;
+    private Capacity capacity = Capacity.CELLS;
+    private float rowHeight = 0F;
+    private LineBreaker lineBreaker = null;
+    /** set by TableMediator for its tables. */
+    boolean mediated = false;
+    /** set by TableMediator for its tables but the last, an unfinished row which doesn't fit moves on. */
+    boolean carriesRow = false;
+    private PdfPCell[] unfinishedRow = null;
+    private float unfinishedRowHeight = 0F;
 
     public SmartTable(Writer client, Position position, int columns, int rows, int cellFontSize, float borderWidth) throws Exception {
         this(client, position, columns, rows, cellFontSize, borderWidth, null);
@@ -76,13 +107,50 @@ public final class SmartTable {
             if (columnWidthsScale.length != this.columns) {
                 throw new Exception("the number of widths is different than the number of columns");
             }
-            this.columnWidthsScale = columnWidthsScale;
+            // a copy, the caller could not change the widths behind the table.
+            this.columnWidthsScale = columnWidthsScale.clone();
         }
     }
 
+    /**
+     * copy the attributes of the table, the position is copied as well.
+     */
     public SmartTable(SmartTable tableObject) throws Exception {
-        LocaleBeanUtils.copyProperties(this, tableObject);
+        this.writer = tableObject.writer;
         this.position = new Position(tableObject.getPosition());
+        this.columns = tableObject.columns;
+        this.rows = tableObject.rows;
+        this.borderWidth = tableObject.borderWidth;
+        this.cellFontSize = tableObject.cellFontSize;
+        this.columnWidthsScale = tableObject.columnWidthsScale == null ? null : tableObject.columnWidthsScale.clone();
+        this.rowFixedHeight = tableObject.rowFixedHeight;
+        this.autoFlush = tableObject.autoFlush;
+        this.streamRows = tableObject.streamRows;
+        this.capacity = tableObject.capacity;
+    }
+
+    /**
+     * create a table by the spec.
+     *
+     * @see TableSpec#newTable(Writer, Position)
+     */
+    public SmartTable(Writer client, Position position, TableSpec spec) {
+        this.writer = client;
+        this.position = position;
+        this.columns = spec.getColumns();
+        this.rows = spec.getRows();
+        this.borderWidth = spec.getBorderWidth();
+        this.cellFontSize = spec.getCellFontSize();
+        // every table gets its own copy, changing the widths of one table doesn't change its siblings.
+        this.columnWidthsScale = spec.getColumnWidthsScale();
+        this.rowFixedHeight = spec.getRowFixedHeight();
+        this.autoFlush = spec.isAutoFlush();
+        this.streamRows = spec.getStreamRows();
+        this.capacity = spec.getCapacity();
+    }
+
+    public TableSpec toSpec() {
+        return new TableSpec(this);
     }
 
     public boolean isAutoFlush() {
@@ -93,6 +161,78 @@ public final class SmartTable {
         this.autoFlush = autoFlush;
     }
 
+    public int getStreamRows() {
+        return streamRows;
+    }
+
+    /**
+     * Streaming mode, completed rows are written once there are streamRows of them
+     * and removed from the table, so only a few rows are kept in memory.
+     *
+     * @param streamRows 0 to disable, the whole table is written by flush().
+     */
+    public void setStreamRows(int streamRows) {
+        this.streamRows = Math.max(streamRows, 0);
+    }
+
+    public Capacity getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Capacity.HEIGHT measures every row as it's added, by the font metrics, padding and rowFixedHeight
+     * of its cells, and the completed rows by the PdfPTable. The table is full when the next row
+     * doesn't fit in the height of the position, so the position is packed without overflowing it.
+     *
+     * The row methods (addRow, RowWriter) are checked as a whole, the single cells by the height of
+     * their row so far. A cell which doesn't fit closes the table; in a TableMediator its unfinished
+     * row moves on to the next table with it, otherwise the row is completed with empty cells.
+     * It's not used in continuous mode, which breaks the pages by height already.
+     */
+    public void setCapacity(Capacity capacity) {
+        this.capacity = capacity == null ? Capacity.CELLS : capacity;
+    }
+
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    /**
+     * Continuous mode, when the next row doesn't fit above the bottom of the position,
+     * the written rows are flushed, a new page is started and the header rows are repeated.
+     * The rows limit is ignored in this mode, the table is full only after flush().
+     *
+     * It's meant for a table on its own, not for the tables of a TableMediator.
+     */
+    public void setContinuous(boolean continuous) {
+        this.continuous = continuous;
+    }
+
+    public int getHeaderRows() {
+        return headerRows;
+    }
+
+    /**
+     * @param headerRows the first rows of the table, repeated on every page in continuous mode.
+     */
+    public void setHeaderRows(int headerRows) {
+        this.headerRows = Math.max(headerRows, 0);
+        if (created) {
+            table.setHeaderRows(this.headerRows);
+        }
+    }
+
+    public float getContinuationTop() {
+        return continuationTop;
+    }
+
+    /**
+     * @param continuationTop where the table starts on a new page, the top of the position by default.
+     */
+    public void setContinuationTop(float continuationTop) {
+        this.continuationTop = continuationTop;
+    }
+
     public Writer getWriter() {
         return writer;
     }
@@ -169,12 +309,15 @@ public final class SmartTable {
         this.rows = rows;
     }
 
+    /**
+     * @return a copy of the widths.
+     */
     public int[] getColumnWidthsScale() {
-        return columnWidthsScale;
+        return columnWidthsScale == null ? null : columnWidthsScale.clone();
     }
 
     public void setColumnWidthsScale(int[] columnWidthsScale) {
-        this.columnWidthsScale = columnWidthsScale;
+        this.columnWidthsScale = columnWidthsScale == null ? null : columnWidthsScale.clone();
     }
 
     private void create() {
@@ -191,12 +334,22 @@ public final class SmartTable {
             table.getDefaultCell().setBorderWidth(borderWidth);
             table.getDefaultCell().setFixedHeight(rowFixedHeight);
             table.getDefaultCell().setPadding(0.2F);
+            table.setHeaderRows(headerRows);
+            if (continuationTop < 0F) {
+                continuationTop = position.getTop();
+            }
             created = true;
         }
     }
 
     private void checkFlush() {
-        if (autoFlush) {
+        if (heightMode()) {
+            if (!flushed && cellCounter % columns == 0 && pendingHeight + rowFixedHeight > position.getHeight()) {
+                flush();
+            }
+            return;
+        }
+        if (autoFlush && !continuous) {
             if (cellCounter > columns * rows) {
                 Logger.getLogger(SmartTable.class.getName()).log(Level.SEVERE, "this case shouldn't be happened. cellCounter: " + cellCounter + ",columns: " + columns + ",rows:" + rows, new TableFlushedException());
                 return;
@@ -207,35 +360,283 @@ public final class SmartTable {
         }
     }
 
-    private boolean isFull() {
+    /**
+     * check whether the cells could be added, the table will be flushed if they can't.
+     */
+    private boolean hasRoom(int cells) {
         if (autoFlush) {
             if (flushed) {
-                return true;
+                rejected(cells);
+                return false;
             }
-            if (cellCounter > columns * rows) {
+            if (!continuous && capacity == Capacity.CELLS && cellCounter + cells > columns * rows) {
                 flush();
-                return true;
+                rejected(cells);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * a mediated table leaves it to its TableMediator, which reports the cells no table took once.
+     */
+    private void rejected(int cells) {
+        if (!mediated) {
+            writer.getMetricsListener().cellsRejected(cells);
+        }
+    }
+
+    private AddStatus added(int cells) {
+        writer.getMetricsListener().cellsAdded(cells);
+        if (heightMode()) {
+            measureRows();
+        }
+        checkFlush();
+        if (flushed) {
+            return AddStatus.FILLED;
+        }
+        if (continuous) {
+            checkContinue();
+        }
+        checkStream();
+        checkMemoryBudget();
+        return AddStatus.ADDED;
+    }
+
+    /**
+     * the Writer is over its memory budget, write the completed rows now as in streaming mode.
+     */
+    private void checkMemoryBudget() {
+        if (writer.isOverMemoryBudget()) {
+            writeCompletedRows();
+            writer.checkMemoryBudget();
+        }
+    }
+
+    private boolean heightMode() {
+        return capacity == Capacity.HEIGHT && autoFlush && !continuous;
+    }
+
+    /**
+     * add the rendered height of the completed rows, the unfinished row starts over.
+     */
+    private void measureRows() {
+        while (measuredRows < table.size()) {
+            pendingHeight += table.getRowHeight(measuredRows++);
+            rowHeight = 0F;
+        }
+    }
+
+    /**
+     * nothing was laid out in the position yet, a row is taken even if it's higher than the position.
+     */
+    private boolean isEmpty() {
+        return table.size() == 0 && !streamStarted;
+    }
+
+    /**
+     * estimate the height of a cell by the font metrics, it's corrected by measureRows() once the row is completed.
+     */
+    private float estimateHeight(String content, int fontSize, boolean ansi, int colspan, CellStyle style) {
+        if (style.getFixedHeight() > 0F) {
+            return style.getFixedHeight();
+        }
+        float[] widths = table.getAbsoluteWidths();
+        int column = cellCounter % columns;
+        float width = -style.getPaddingLeft() - style.getPaddingRight();
+        for (int i = column; i < Math.min(column + colspan, widths.length); i++) {
+            width += widths[i];
+        }
+        FontMetrics metrics = ansi ? writer.getAnsiMetrics() : writer.getMetrics();
+        if (lineBreaker == null) {
+            lineBreaker = new LineBreaker();
+        }
+        int lines = Math.max(lineBreaker.breakLines(content, metrics, fontSize, width), 1);
+        float leading = style.getFixedLeading() + style.getMultipliedLeading() * fontSize;
+        return style.getPaddingTop() + style.getPaddingBottom() + lines * leading;
+    }
+
+    private float estimateHeight(Cell cell) {
+        CellStyle style = cell.getStyle();
+        return estimateHeight(cell.getContent(), style.getFontSize(), style.getFontType() != Cell.FontType.DBCS, style.getColspan(), style);
+    }
+
+    /**
+     * in height mode, a cell making its row overflow the position closes and flushes the table.
+     * The unfinished row is taken back for the next table of a TableMediator, so the row isn't split,
+     * otherwise it's completed with empty cells.
+     */
+    private boolean hasHeightRoom(float cellHeight) {
+        float height = Math.max(rowHeight, cellHeight);
+        if (pendingHeight + height <= position.getHeight() || isEmpty()) {
+            rowHeight = height;
+            return true;
+        }
+        if (cellCounter % columns != 0) {
+            if (carriesRow) {
+                unfinishedRow = writer.removeUnfinishedRow(table);
+                unfinishedRowHeight = rowHeight;
+                cellCounter -= cellCounter % columns;
+            } else {
+                table.getDefaultCell().setBorderWidth(borderWidth);
+                table.completeRow();
+                cellCounter += columns - cellCounter % columns;
+                measureRows();
             }
+            rowHeight = 0F;
         }
+        flush();
+        rejected(1);
         return false;
     }
 
+    /**
+     * go on with the unfinished row the previous table of the TableMediator took back.
+     */
+    void carryRowOf(SmartTable previous) {
+        if (previous.unfinishedRow == null) {
+            return;
+        }
+        checkCreate();
+        for (PdfPCell cell : previous.unfinishedRow) {
+            table.addCell(cell);
+            cellCounter += cell.getColspan();
+        }
+        rowHeight = Math.max(rowHeight, previous.unfinishedRowHeight);
+        previous.unfinishedRow = null;
+    }
+
+    /**
+     * in height mode, the row just added is measured and taken back if it overflows the position.
+     */
+    private boolean lastRowFits(int cells) {
+        if (!heightMode()) {
+            return true;
+        }
+        int last = table.size() - 1;
+        while (measuredRows < last) {
+            pendingHeight += table.getRowHeight(measuredRows++);
+        }
+        rowHeight = 0F;
+        if (pendingHeight + table.getRowHeight(last) <= position.getHeight() || last == 0 && !streamStarted) {
+            return true;
+        }
+        table.deleteLastRow();
+        cellCounter -= columns;
+        flush();
+        rejected(cells);
+        return false;
+    }
+
+    /**
+     * measure the completed rows, go to next page when a row doesn't fit.
+     */
+    private void checkContinue() {
+        while (measuredRows < table.size()) {
+            float rowHeight = table.getRowHeight(measuredRows);
+            boolean hasPending = measuredRows > firstPendingRow();
+            if (hasPending && measuredRows >= table.getHeaderRows()
+                    && position.getTop() - pendingHeight - rowHeight < position.getBottom()) {
+                continueOnNewPage(measuredRows);
+                continue;
+            }
+            pendingHeight += rowHeight;
+            measuredRows++;
+        }
+    }
+
+    /**
+     * write rows before rowEnd, start a new page and write the header rows on it.
+     */
+    private void continueOnNewPage(int rowEnd) {
+        moveTop(this.writer.flushTable(table, firstPendingRow(), rowEnd, position.getLeft(), position.getTop()));
+        for (int i = rowEnd - 1; i >= table.getHeaderRows(); i--) {
+            table.deleteRow(i);
+        }
+        streamStarted = true;
+        this.writer.newPage();
+        position.setTop(continuationTop);
+        if (table.getHeaderRows() > 0) {
+            position.setTop(this.writer.flushTable(table, 0, table.getHeaderRows(), position.getLeft(), position.getTop()));
+        }
+        measuredRows = table.getHeaderRows();
+        pendingHeight = 0F;
+    }
+
+    private void checkStream() {
+        if (streamRows > 0 && table.size() - firstPendingRow() >= streamRows) {
+            writeCompletedRows();
+        }
+    }
+
+    /**
+     * header rows stay in the table after the first write, they are not written again.
+     */
+    private int firstPendingRow() {
+        return streamStarted ? table.getHeaderRows() : 0;
+    }
+
+    private void writeCompletedRows() {
+        int start = firstPendingRow();
+        if (table.size() > start) {
+            moveTop(this.writer.flushTable(table, start, table.size(), position.getLeft(), position.getTop()));
+            table.deleteBodyRows();
+            streamStarted = true;
+        }
+        measuredRows = table.size();
+        pendingHeight = 0F;
+    }
+
+    private void moveTop(float bottom) {
+        position.setTop(bottom);
+        if (replicatorPosition != null) {
+            replicatorPosition.setTop(Math.min(replicatorPosition.getTop(), position.getTop()));
+        }
+    }
+
     private void checkCreate() {
         if (!created) {
             create();
         }
     }
 
+    /**
+     * @return how many cells could still be added, Integer.MAX_VALUE if the table is not auto flushed,
+     *         an estimate by rowFixedHeight in Capacity.HEIGHT.
+     */
+    public int remainingCells() {
+        if (!autoFlush) {
+            return Integer.MAX_VALUE;
+        }
+        if (flushed) {
+            return 0;
+        }
+        if (continuous) {
+            return Integer.MAX_VALUE;
+        }
+        if (capacity == Capacity.HEIGHT) {
+            // estimated with rows of rowFixedHeight.
+            int unfinished = cellCounter % columns == 0 ? 0 : columns - cellCounter % columns;
+            float free = position.getHeight() - pendingHeight - (unfinished > 0 ? rowHeight : 0F);
+            return Math.max((int) (free / Math.max(rowFixedHeight, 1)), 0) * columns + unfinished;
+        }
+        return Math.max(columns * rows - cellCounter, 0);
+    }
+
+    public boolean isFull() {
+        return remainingCells() == 0;
+    }
+
     /**
      * add an empty cell
      *
      * @throws TableWasFullException
      */
     public void addEmptyCell() throws TableWasFullException {
-        checkCreate();
-        this.writer.addEmptyCell(table, borderWidth);
-        cellCounter++;
-        checkFlush();
+        if (tryAddEmptyCell() == AddStatus.FULL) {
+            throw TableWasFullException.INSTANCE;
+        }
     }
 
     /**
@@ -245,13 +646,8 @@ public final class SmartTable {
      * @throws TableWasFullException
      */
     public void addCell(String content) throws TableWasFullException {
-        checkCreate();
-        if (isFull()) {
-            throw new TableWasFullException();
-        } else {
-            cellCounter++;
-            this.writer.addCell(table, content, cellFontSize, borderWidth, 1);
-            checkFlush();
+        if (tryAddCell(content) == AddStatus.FULL) {
+            throw TableWasFullException.INSTANCE;
         }
     }
 
@@ -262,13 +658,8 @@ public final class SmartTable {
      * @throws TableWasFullException
      */
     public void addAnsiCell(String content) throws TableWasFullException {
-        checkCreate();
-        if (isFull()) {
-            throw new TableWasFullException();
-        } else {
-            cellCounter ++;
-            this.writer.addAnsiCell(table, content, cellFontSize, borderWidth, 1);
-            checkFlush();
+        if (tryAddAnsiCell(content) == AddStatus.FULL) {
+            throw TableWasFullException.INSTANCE;
         }
     }
 
@@ -279,13 +670,8 @@ public final class SmartTable {
      * @throws TableWasFullException
      */
     public void addCell(Cell cell) throws TableWasFullException {
-        checkCreate();
-        cellCounter += cell.getColspan();
-        if (isFull()) {
-            throw new TableWasFullException();
-        } else {
-            this.writer.addCell(table, cell);
-            checkFlush();
+        if (tryAddCell(cell) == AddStatus.FULL) {
+            throw TableWasFullException.INSTANCE;
         }
     }
 
@@ -297,22 +683,301 @@ public final class SmartTable {
      * @throws TableWasFullException
      */
     public void addCrossRowCell(String content, float maxCellWidth) throws TableWasFullException {
+        if (tryAddCrossRowCell(content, maxCellWidth) == AddStatus.FULL) {
+            throw TableWasFullException.INSTANCE;
+        }
+    }
+
+    /**
+     * add an empty cell without throwing when the table was full.
+     */
+    public AddStatus tryAddEmptyCell() {
+        checkCreate();
+        if (!hasRoom(1)) {
+            return AddStatus.FULL;
+        }
+        if (heightMode() && !hasHeightRoom(rowFixedHeight)) {
+            return AddStatus.FULL;
+        }
+        this.writer.addEmptyCell(table, borderWidth);
+        cellCounter++;
+        return added(1);
+    }
+
+    /**
+     * add a cell with DBCS content without throwing when the table was full.
+     */
+    public AddStatus tryAddCell(String content) {
+        checkCreate();
+        if (!hasRoom(1)) {
+            return AddStatus.FULL;
+        }
+        if (heightMode() && !hasHeightRoom(estimateHeight(content, cellFontSize, false, 1, CellStyle.DEFAULT))) {
+            return AddStatus.FULL;
+        }
+        cellCounter++;
+        this.writer.addCell(table, content, cellFontSize, borderWidth, 1);
+        return added(1);
+    }
+
+    /**
+     * add a cell with ANSI char content without throwing when the table was full.
+     */
+    public AddStatus tryAddAnsiCell(String content) {
+        checkCreate();
+        if (!hasRoom(1)) {
+            return AddStatus.FULL;
+        }
+        if (heightMode() && !hasHeightRoom(estimateHeight(content, cellFontSize, true, 1, CellStyle.DEFAULT))) {
+            return AddStatus.FULL;
+        }
+        cellCounter++;
+        this.writer.addAnsiCell(table, content, cellFontSize, borderWidth, 1);
+        return added(1);
+    }
+
+    /**
+     * add a cell by Cell object without throwing when the table was full.
+     */
+    public AddStatus tryAddCell(Cell cell) {
+        checkCreate();
+        if (!hasRoom(cell.getColspan())) {
+            return AddStatus.FULL;
+        }
+        if (heightMode() && !hasHeightRoom(estimateHeight(cell))) {
+            return AddStatus.FULL;
+        }
+        cellCounter += cell.getColspan();
+        this.writer.addCell(table, cell);
+        return added(cell.getColspan());
+    }
+
+    /**
+     * add a cell wraps into next row without throwing when the table was full.
+     */
+    public AddStatus tryAddCrossRowCell(String content, float maxCellWidth) {
         Cell cell = new Cell(content);
         cell.setColspan(1);
         cell.setMaxWidth(maxCellWidth);
         checkCreate();
-        float stringWidth = writer.getStringWidth(cell.getContent(), cell.getFontSize());
-        if (stringWidth > cell.getMaxWidth()) {
-            cellCounter += (1 + (int) (stringWidth / cell.getMaxWidth()) * this.columns);
+        int cells = 1;
+        if (heightMode()) {
+            // the wrapped lines are measured, not guessed.
+            if (!hasRoom(cells) || !hasHeightRoom(estimateHeight(cell))) {
+                return AddStatus.FULL;
+            }
         } else {
-            cellCounter++;
+            float stringWidth = writer.getStringWidth(cell.getContent(), cell.getFontSize(), cell.getFontType());
+            if (stringWidth > cell.getMaxWidth()) {
+                cells += (int) (stringWidth / cell.getMaxWidth()) * this.columns;
+            }
+            if (!hasRoom(cells)) {
+                return AddStatus.FULL;
+            }
         }
-        if (isFull()) {
-            throw new TableWasFullException();
-        } else {
-            this.writer.addCell(table, cell);
-            checkFlush();
+        cellCounter += cells;
+        this.writer.addCell(table, cell);
+        return added(1);
+    }
+
+    /**
+     * @return cells a new row takes, with the empty cells completing an unfinished row.
+     */
+    private int rowCells() {
+        return columns + (columns - cellCounter % columns) % columns;
+    }
+
+    private boolean rowFits() {
+        if (!autoFlush) {
+            return true;
+        }
+        if (flushed) {
+            return false;
+        }
+        if (heightMode()) {
+            return pendingHeight + rowFixedHeight <= position.getHeight() || isEmpty();
+        }
+        return continuous || cellCounter + rowCells() <= columns * rows;
+    }
+
+    /**
+     * add a row of DBCS contents, it's never split, the rest of the row is left empty.
+     *
+     * @throws TableWasFullException
+     */
+    public void addRow(CharSequence... contents) throws TableWasFullException {
+        if (tryAddRow(contents) == AddStatus.FULL) {
+            throw TableWasFullException.INSTANCE;
+        }
+    }
+
+    /**
+     * add a row of ANSI char contents, it's never split, the rest of the row is left empty.
+     *
+     * @throws TableWasFullException
+     */
+    public void addAnsiRow(CharSequence... contents) throws TableWasFullException {
+        if (tryAddAnsiRow(contents) == AddStatus.FULL) {
+            throw TableWasFullException.INSTANCE;
+        }
+    }
+
+    /**
+     * add a row of DBCS contents without throwing when the table was full.
+     */
+    public AddStatus tryAddRow(CharSequence... contents) {
+        return tryAddRow(contents, contents.length, false);
+    }
+
+    /**
+     * add a row of ANSI char contents without throwing when the table was full.
+     */
+    public AddStatus tryAddAnsiRow(CharSequence... contents) {
+        return tryAddRow(contents, contents.length, true);
+    }
+
+    /**
+     * the capacity is checked once for the whole row.
+     */
+    AddStatus tryAddRow(CharSequence[] contents, int count, boolean ansi) {
+        if (count > columns) {
+            throw new IllegalArgumentException("SmartTable: a row has at most " + columns + " cells, got " + count);
+        }
+        checkCreate();
+        int cells = rowCells();
+        if (!hasRoom(cells)) {
+            return AddStatus.FULL;
+        }
+        cellCounter += cells;
+        this.writer.addRow(table, contents, count, cellFontSize, borderWidth, ansi);
+        if (!lastRowFits(cells)) {
+            return AddStatus.FULL;
+        }
+        return added(cells);
+    }
+
+    /**
+     * add a row of Cells, their colspans must not exceed the columns of the table.
+     *
+     * @throws TableWasFullException
+     */
+    public void addRow(Cell... cells) throws TableWasFullException {
+        if (tryAddRow(cells) == AddStatus.FULL) {
+            throw TableWasFullException.INSTANCE;
+        }
+    }
+
+    /**
+     * add a row of Cells without throwing when the table was full.
+     */
+    public AddStatus tryAddRow(Cell... cells) {
+        return tryAddRow(cells, cells.length);
+    }
+
+    AddStatus tryAddRow(Cell[] cells, int count) {
+        int spans = 0;
+        for (int i = 0; i < count; i++) {
+            spans += cells[i].getColspan();
+        }
+        if (spans > columns) {
+            throw new IllegalArgumentException("SmartTable: a row has at most " + columns + " cells, got " + spans);
+        }
+        checkCreate();
+        int cellsOfRow = rowCells();
+        if (!hasRoom(cellsOfRow)) {
+            return AddStatus.FULL;
+        }
+        cellCounter += cellsOfRow;
+        this.writer.addRow(table, cells, count, borderWidth);
+        if (!lastRowFits(cellsOfRow)) {
+            return AddStatus.FULL;
         }
+        return added(cellsOfRow);
+    }
+
+    /**
+     * append a row laid out by a RowPipeline.
+     */
+    AddStatus tryAddRow(PreparedRow row) {
+        checkCreate();
+        int cells = rowCells();
+        if (!hasRoom(cells)) {
+            return AddStatus.FULL;
+        }
+        cellCounter += cells;
+        this.writer.appendRow(table, row.fit(table.getAbsoluteWidths()), borderWidth);
+        if (!lastRowFits(cells)) {
+            return AddStatus.FULL;
+        }
+        return added(cells);
+    }
+
+    /**
+     * @return the column widths of the PdfPTable, it's created if it wasn't.
+     */
+    float[] absoluteWidths() {
+        checkCreate();
+        return table.getAbsoluteWidths();
+    }
+
+    /**
+     * @return a copy of the cell completing unfinished rows.
+     */
+    PdfPCell emptyCell() {
+        checkCreate();
+        PdfPCell cell = new PdfPCell(table.getDefaultCell());
+        cell.setBorderWidth(borderWidth);
+        return cell;
+    }
+
+    /**
+     * add DBCS rows until the table is full, a row which doesn't fit is left in the iterator
+     * (it must be a ListIterator in Capacity.HEIGHT).
+     *
+     * @return how many rows were added.
+     */
+    public int tryAddRows(Iterator<? extends CharSequence[]> rows) {
+        return tryAddRows(rows, false);
+    }
+
+    /**
+     * add ANSI char rows until the table is full, a row which doesn't fit is left in the iterator
+     * (it must be a ListIterator in Capacity.HEIGHT).
+     *
+     * @return how many rows were added.
+     */
+    public int tryAddAnsiRows(Iterator<? extends CharSequence[]> rows) {
+        return tryAddRows(rows, true);
+    }
+
+    int tryAddRows(Iterator<? extends CharSequence[]> rows, boolean ansi) {
+        if (heightMode() && !(rows instanceof ListIterator)) {
+            throw new IllegalArgumentException("SmartTable: rows are measured after they're taken in Capacity.HEIGHT, give them as a ListIterator");
+        }
+        int added = 0;
+        while (rows.hasNext()) {
+            if (!rowFits()) {
+                if (autoFlush) {
+                    flush();
+                }
+                break;
+            }
+            CharSequence[] row = rows.next();
+            if (tryAddRow(row, row.length, ansi) == AddStatus.FULL) {
+                ((ListIterator<?>) rows).previous();
+                break;
+            }
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * @param ansi the contents are ANSI chars.
+     * @return a RowWriter fills rows of this table through a reused buffer.
+     */
+    public RowWriter newRowWriter(boolean ansi) {
+        return new RowWriter(this, null, columns, ansi);
     }
 
     /**
@@ -320,10 +985,10 @@ public final class SmartTable {
      */
     public void flush() {
         if (!flushed) {
-            float bottom = this.writer.flushTable(table, position.getLeft(), position.getTop());
-            position.setTop(bottom);
-            if (replicatorPosition != null) {
-                replicatorPosition.setTop(Math.min(replicatorPosition.getTop(), position.getTop()));
+            if (streamRows > 0 || continuous || streamStarted) {
+                writeCompletedRows();
+            } else {
+                moveTop(this.writer.flushTable(table, position.getLeft(), position.getTop()));
             }
             flushed = true;
         }
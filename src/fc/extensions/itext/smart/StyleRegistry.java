@@ -0,0 +1,97 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.smart;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe registry keeps one instance of every CellStyle,
+ * cells of the same look share it.
+ *
+ * It's bounded: once it holds maxStyles styles, new ones are not registered and stay private to their cells,
+ * so styles of computed values (e.g. a fixed height per row) don't grow it in a long-running JVM.
+ *
+ * @author Andersen
+ */
+public final class StyleRegistry {
+
+    public static final int DEFAULT_MAX_STYLES = 4096;
+
+    private static final StyleRegistry DEFAULT = new StyleRegistry();
+
+    private final ConcurrentMap<CellStyle, CellStyle> styles = new ConcurrentHashMap<CellStyle, CellStyle>();
+    private final int maxStyles;
+
+    public StyleRegistry() {
+        this(DEFAULT_MAX_STYLES);
+    }
+
+    public StyleRegistry(int maxStyles) {
+        this.maxStyles = Math.max(maxStyles, 1);
+    }
+
+    /**
+     * @return the process-wide registry, CellStyle.with*() methods intern into it.
+     */
+    public static StyleRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the registered style equal to the given one, it's registered if absent and the registry isn't full.
+     */
+    public CellStyle intern(CellStyle style) {
+        CellStyle registered = styles.get(style);
+        if (registered != null) {
+            return registered;
+        }
+        if (styles.size() >= maxStyles) {
+            return style;
+        }
+        registered = styles.putIfAbsent(style, style);
+        return registered == null ? style : registered;
+    }
+
+    public int getMaxStyles() {
+        return maxStyles;
+    }
+
+    public int size() {
+        return styles.size();
+    }
+
+    /**
+     * drop the registered styles, styles held by cells stay valid.
+     */
+    public void clear() {
+        styles.clear();
+    }
+}
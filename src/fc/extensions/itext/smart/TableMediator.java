@@ -30,6 +30,8 @@
 
 package fc.extensions.itext.smart;
 
+import java.util.Iterator;
+
 /**
  * The TableMediator will mediate tables in horizontal,
  * it also offer two kinds of addCell method (return boolean or throws exception).
@@ -39,6 +41,7 @@ package fc.extensions.itext.smart;
 public class TableMediator {
 
     protected SmartTable[] tables = null;
+    private int current = 0;
 
     /**
      * mediate just one table.
@@ -62,123 +65,270 @@ public class TableMediator {
         this.tables = new SmartTable[count];
         float left = table.getPosition().getLeft();
         float width = (table.getPosition().getWidth() - (gap * (float)count)) / (float)count;
+        TableSpec spec = table.toSpec();
         for (int i = 0; i < tables.length; i++) {
-            tables[i] = new SmartTable(table);
-            tables[i].getPosition().setLeft(left);
-            tables[i].getPosition().setRight(left + width);
+            Position position = new Position(table.getPosition());
+            position.setLeft(left);
+            position.setRight(left + width);
+            tables[i] = spec.newTable(table.getWriter(), position);
+            tables[i].mediated = true;
+            tables[i].carriesRow = i < count - 1;
             left += (width + gap);
         }
         tables[0].setReplicatorPosition(table.getPosition());
     }
 
     public final TableMediator addEmptyCellEx() throws TableWasFullException {
-        for (int i = 0; i < tables.length; i++) {
-            tables[i].addEmptyCell();
-            break;
-        }
-        return this;
+        return checkAdded(tryAddEmptyCell());
     }
 
     public final boolean addEmptyCell() {
-        for (int i = 0; i < tables.length; i++) {
-            try {
-                tables[i].addEmptyCell();
-                break;
-            } catch (TableWasFullException tex) {
-                if (i == (tables.length - 1)) {
-                    return false;
-                }
-            }
+        return tryAddEmptyCell().isAdded();
+    }
+
+    public final TableMediator addCellEx(String s) throws TableWasFullException {
+        return checkAdded(tryAddCell(s));
+    }
+
+    public final boolean addCell(String s) {
+        return tryAddCell(s).isAdded();
+    }
+
+    public final TableMediator addCellEx(Cell cell) throws TableWasFullException {
+        return checkAdded(tryAddCell(cell));
+    }
+
+    public final boolean addCell(Cell cell) throws Exception {
+        return tryAddCell(cell).isAdded();
+    }
+
+    public final TableMediator addAnsiCellEx(String s) throws TableWasFullException {
+        return checkAdded(tryAddAnsiCell(s));
+    }
+
+
+    public final boolean addAnsiCell(String s) {
+        return tryAddAnsiCell(s).isAdded();
+    }
+
+    public final boolean addCrossRowCell(String content, float maxCellWidth) {
+        return tryAddCrossRowCell(content, maxCellWidth).isAdded();
+    }
 
+    public final TableMediator addCrossRowCellEx(String content, float maxCellWidth) throws TableWasFullException {
+        return checkAdded(tryAddCrossRowCell(content, maxCellWidth));
+    }
+
+    public final boolean addRow(CharSequence... contents) {
+        return tryAddRow(contents).isAdded();
+    }
+
+    public final TableMediator addRowEx(CharSequence... contents) throws TableWasFullException {
+        return checkAdded(tryAddRow(contents));
+    }
+
+    public final boolean addAnsiRow(CharSequence... contents) {
+        return tryAddAnsiRow(contents).isAdded();
+    }
+
+    public final TableMediator addAnsiRowEx(CharSequence... contents) throws TableWasFullException {
+        return checkAdded(tryAddAnsiRow(contents));
+    }
+
+    public final boolean addRow(Cell... cells) {
+        return tryAddRow(cells).isAdded();
+    }
+
+    public final TableMediator addRowEx(Cell... cells) throws TableWasFullException {
+        return checkAdded(tryAddRow(cells));
+    }
+
+    /**
+     * @return how many cells could still be added to all mediated tables.
+     */
+    public final int remainingCells() {
+        long remaining = 0L;
+        for (int i = current; i < tables.length; i++) {
+            remaining += tables[i].remainingCells();
         }
-        return true;
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
     }
 
-    public final TableMediator addCellEx(String s) throws TableWasFullException {
-        for (int i = 0; i < tables.length; i++) {
-            tables[i].addCell(s);
-            break;
+    /**
+     * @return the table cells are added to, null if all tables were full.
+     */
+    public final SmartTable getCurrentTable() {
+        return current < tables.length ? tables[current] : null;
+    }
+
+    /**
+     * the tryAdd methods put the cell to the current table and move to next table when it's full,
+     * FILLED means the last table was filled, FULL means no table accepts it.
+     */
+    public final AddStatus tryAddEmptyCell() {
+        while (current < tables.length) {
+            AddStatus status = advance(tables[current].tryAddEmptyCell());
+            if (status != AddStatus.FULL) {
+                return status;
+            }
         }
-        return this;
+        return rejected(1);
     }
 
-    public final boolean addCell(String s) {
-        for (int i = 0; i < tables.length; i++) {
-            try {
-                tables[i].addCell(s);
-                break;
-            } catch (TableWasFullException tex) {
-                if (i == (tables.length - 1)) {
-                    return false;
-                }
+    public final AddStatus tryAddCell(String s) {
+        while (current < tables.length) {
+            AddStatus status = advance(tables[current].tryAddCell(s));
+            if (status != AddStatus.FULL) {
+                return status;
             }
         }
-        return true;
+        return rejected(1);
     }
 
-    public final TableMediator addCellEx(Cell cell) throws TableWasFullException {
-        for (int i = 0; i < tables.length; i++) {
-            tables[i].addCell(cell);
-            break;
+    public final AddStatus tryAddAnsiCell(String s) {
+        while (current < tables.length) {
+            AddStatus status = advance(tables[current].tryAddAnsiCell(s));
+            if (status != AddStatus.FULL) {
+                return status;
+            }
         }
-        return this;
+        return rejected(1);
     }
 
-    public final boolean addCell(Cell cell) throws Exception {
-        for (int i = 0; i < tables.length; i++) {
-            try {
-                tables[i].addCell(cell);
-                break;
-            } catch (TableWasFullException tex) {
-                if (i == (tables.length - 1)) {
-                    return false;
-                }
+    public final AddStatus tryAddCell(Cell cell) {
+        while (current < tables.length) {
+            AddStatus status = advance(tables[current].tryAddCell(cell));
+            if (status != AddStatus.FULL) {
+                return status;
             }
         }
-        return true;
+        return rejected(1);
     }
 
-    public final TableMediator addAnsiCellEx(String s) throws TableWasFullException {
-        for (int i = 0; i < tables.length; i++) {
-            tables[i].addAnsiCell(s);
-            break;
+    public final AddStatus tryAddCrossRowCell(String content, float maxCellWidth) {
+        while (current < tables.length) {
+            AddStatus status = advance(tables[current].tryAddCrossRowCell(content, maxCellWidth));
+            if (status != AddStatus.FULL) {
+                return status;
+            }
         }
-        return this;
+        return rejected(1);
+    }
+
+    /**
+     * a row goes to one table as a whole, it's never split across the mediated tables.
+     */
+    public final AddStatus tryAddRow(CharSequence... contents) {
+        return tryAddRow(contents, contents.length, false);
     }
 
+    public final AddStatus tryAddAnsiRow(CharSequence... contents) {
+        return tryAddRow(contents, contents.length, true);
+    }
 
-    public final boolean addAnsiCell(String s) {
-        for (int i = 0; i < tables.length; i++) {
-            try {
-                tables[i].addAnsiCell(s);
-                break;
-            } catch (TableWasFullException tex) {
-                if (i == (tables.length - 1)) {
-                    return false;
-                }
+    final AddStatus tryAddRow(CharSequence[] contents, int count, boolean ansi) {
+        while (current < tables.length) {
+            AddStatus status = advance(tables[current].tryAddRow(contents, count, ansi));
+            if (status != AddStatus.FULL) {
+                return status;
             }
         }
-        return true;
+        return rejected(count);
     }
 
-    public final boolean addCrossRowCell(String content, float maxCellWidth) {
-        for (int i = 0; i < tables.length; i++) {
-            try {
-                tables[i].addCrossRowCell(content, maxCellWidth);
+    public final AddStatus tryAddRow(Cell... cells) {
+        return tryAddRow(cells, cells.length);
+    }
+
+    final AddStatus tryAddRow(Cell[] cells, int count) {
+        while (current < tables.length) {
+            AddStatus status = advance(tables[current].tryAddRow(cells, count));
+            if (status != AddStatus.FULL) {
+                return status;
+            }
+        }
+        return rejected(count);
+    }
+
+    final AddStatus tryAddRow(PreparedRow row) {
+        while (current < tables.length) {
+            AddStatus status = advance(tables[current].tryAddRow(row));
+            if (status != AddStatus.FULL) {
+                return status;
+            }
+        }
+        return rejected(row.getCells());
+    }
+
+    /**
+     * add DBCS rows until all tables are full, a row which doesn't fit is left in the iterator.
+     *
+     * @return how many rows were added.
+     */
+    public final int tryAddRows(Iterator<? extends CharSequence[]> rows) {
+        return tryAddRows(rows, false);
+    }
+
+    /**
+     * add ANSI char rows until all tables are full, a row which doesn't fit is left in the iterator.
+     *
+     * @return how many rows were added.
+     */
+    public final int tryAddAnsiRows(Iterator<? extends CharSequence[]> rows) {
+        return tryAddRows(rows, true);
+    }
+
+    private int tryAddRows(Iterator<? extends CharSequence[]> rows, boolean ansi) {
+        int added = 0;
+        while (current < tables.length) {
+            added += tables[current].tryAddRows(rows, ansi);
+            if (!rows.hasNext()) {
                 break;
-            } catch (TableWasFullException tex) {
-                if (i == (tables.length - 1)) {
-                    return false;
-                }
             }
+            advance(AddStatus.FULL);
         }
-        return true;
+        return added;
     }
 
-    public final TableMediator addCrossRowCellEx(String content, float maxCellWidth) throws TableWasFullException {
-        for (int i = 0; i < tables.length; i++) {
-            tables[i].addCrossRowCell(content, maxCellWidth);
-            break;
+    /**
+     * @param ansi the contents are ANSI chars.
+     * @return a RowWriter fills rows of the mediated tables through a reused buffer.
+     */
+    public final RowWriter newRowWriter(boolean ansi) {
+        return new RowWriter(null, this, tables[0].getColumns(), ansi);
+    }
+
+    /**
+     * move the cursor once the current table is full,
+     * a table filled is reported as FILLED only when it's the last one.
+     */
+    private AddStatus advance(AddStatus status) {
+        if (status == AddStatus.ADDED) {
+            return status;
+        }
+        current++;
+        if (status == AddStatus.FULL && current < tables.length) {
+            // the cell was refused by the full table and goes on to the next one, with its unfinished row.
+            tables[current].carryRowOf(tables[current - 1]);
+            tables[current].getWriter().getMetricsListener().tableOverflowed();
+        }
+        if (status == AddStatus.FILLED && current < tables.length) {
+            return AddStatus.ADDED;
+        }
+        return status;
+    }
+
+    /**
+     * all tables were full, the mediated tables don't report rejected cells so it's reported once here.
+     */
+    private AddStatus rejected(int cells) {
+        tables[0].getWriter().getMetricsListener().cellsRejected(cells);
+        return AddStatus.FULL;
+    }
+
+    private TableMediator checkAdded(AddStatus status) throws TableWasFullException {
+        if (status == AddStatus.FULL) {
+            throw TableWasFullException.INSTANCE;
         }
         return this;
     }
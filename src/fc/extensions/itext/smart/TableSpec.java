@@ -0,0 +1,135 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package fc.extensions.itext.smart;
+
+import fc.extensions.itext.Writer;
+
+/**
+ * An immutable snapshot of the attributes of a SmartTable,
+ * it stamps out new tables cheaply, e.g. the tables of a TableMediator.
+ *
+ * @author Andersen
+ */
+public final class TableSpec {
+
+    private final int columns;
+    private final int rows;
+    private final int cellFontSize;
+    private final float borderWidth;
+    private final int[] columnWidthsScale;
+    private final int rowFixedHeight;
+    private final boolean autoFlush;
+    private final int streamRows;
+    private final SmartTable.Capacity capacity;
+
+    public TableSpec(int columns, int rows, int cellFontSize, float borderWidth, int[] columnWidthsScale, int rowFixedHeight, boolean autoFlush) {
+        this(columns, rows, cellFontSize, borderWidth, columnWidthsScale, rowFixedHeight, autoFlush, 0);
+    }
+
+    /**
+     * @param streamRows see SmartTable#setStreamRows(int).
+     */
+    public TableSpec(int columns, int rows, int cellFontSize, float borderWidth, int[] columnWidthsScale, int rowFixedHeight, boolean autoFlush, int streamRows) {
+        this(columns, rows, cellFontSize, borderWidth, columnWidthsScale, rowFixedHeight, autoFlush, streamRows, SmartTable.Capacity.CELLS);
+    }
+
+    /**
+     * @param capacity see SmartTable#setCapacity(SmartTable.Capacity).
+     */
+    public TableSpec(int columns, int rows, int cellFontSize, float borderWidth, int[] columnWidthsScale, int rowFixedHeight, boolean autoFlush, int streamRows, SmartTable.Capacity capacity) {
+        if (columnWidthsScale != null && columnWidthsScale.length != columns) {
+            throw new IllegalArgumentException("the number of widths is different than the number of columns");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.cellFontSize = cellFontSize;
+        this.borderWidth = borderWidth;
+        this.columnWidthsScale = columnWidthsScale == null ? null : columnWidthsScale.clone();
+        this.rowFixedHeight = rowFixedHeight;
+        this.autoFlush = autoFlush;
+        this.streamRows = streamRows;
+        this.capacity = capacity == null ? SmartTable.Capacity.CELLS : capacity;
+    }
+
+    /**
+     * take the attributes of the table, the state (cells, created, flushed) is not taken.
+     */
+    public TableSpec(SmartTable table) {
+        this(table.getColumns(), table.getRows(), table.getDefaultFontSize(), table.getBorderWidth(),
+                table.getColumnWidthsScale(), table.getRowFixedHeight(), table.isAutoFlush(), table.getStreamRows(), table.getCapacity());
+    }
+
+    /**
+     * create a new table at the position, the position is used (not copied) by the table.
+     */
+    public SmartTable newTable(Writer writer, Position position) {
+        return new SmartTable(writer, position, this);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCellFontSize() {
+        return cellFontSize;
+    }
+
+    public float getBorderWidth() {
+        return borderWidth;
+    }
+
+    /**
+     * @return a copy of the scales, null if not given.
+     */
+    public int[] getColumnWidthsScale() {
+        return columnWidthsScale == null ? null : columnWidthsScale.clone();
+    }
+
+    public int getRowFixedHeight() {
+        return rowFixedHeight;
+    }
+
+    public boolean isAutoFlush() {
+        return autoFlush;
+    }
+
+    public int getStreamRows() {
+        return streamRows;
+    }
+
+    public SmartTable.Capacity getCapacity() {
+        return capacity;
+    }
+}
@@ -30,7 +30,16 @@
 
 package fc.extensions.itext.smart;
 
+/**
+ * Thrown when a table can't accept more cells.
+ * It's a control-flow signal, so it carries no stack trace and a shared instance is used.
+ */
 public class TableWasFullException extends Exception {
 
+    static final TableWasFullException INSTANCE = new TableWasFullException();
 
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
 }
@@ -0,0 +1,120 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.batch;
+
+import fc.extensions.itext.Writer;
+import java.io.File;
+import java.util.Iterator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * BatchEngine against job sources which fail while they are read.
+ *
+ * @author Andersen
+ */
+public class BatchEngineTest {
+
+    private BatchEngine engine = null;
+
+    @Before
+    public void setUp() {
+        // the jobs fail at once on the missing font, no document is written.
+        BatchConfig config = new BatchConfig("missing.ttf", "missing.ttf");
+        config.setThreads(1);
+        config.setMaxInFlight(2);
+        engine = new BatchEngine(config);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        engine.shutdown();
+    }
+
+    @Test(timeout = 10000L)
+    public void failsWhenHasNextThrows() throws Exception {
+        try {
+            engine.run(new FailingSource(0, true));
+            fail("the source failure was swallowed");
+        } catch (IllegalStateException ex) {
+            assertEquals("FailingSource: hasNext", ex.getMessage());
+        }
+    }
+
+    @Test(timeout = 10000L)
+    public void failsWhenNextThrowsAfterSomeJobs() throws Exception {
+        try {
+            engine.run(new FailingSource(3, false));
+            fail("the source failure was swallowed");
+        } catch (IllegalStateException ex) {
+            assertEquals("FailingSource: next", ex.getMessage());
+        }
+    }
+
+    /**
+     * gives some jobs, then throws from hasNext() or next().
+     */
+    private static final class FailingSource implements Iterator<DocumentJob> {
+
+        private final int jobs;
+        private final boolean inHasNext;
+        private int count = 0;
+
+        FailingSource(int jobs, boolean inHasNext) {
+            this.jobs = jobs;
+            this.inHasNext = inHasNext;
+        }
+
+        public boolean hasNext() {
+            if (count >= jobs && inHasNext) {
+                throw new IllegalStateException("FailingSource: hasNext");
+            }
+            return true;
+        }
+
+        public DocumentJob next() {
+            if (count >= jobs) {
+                throw new IllegalStateException("FailingSource: next");
+            }
+            count++;
+            return new AbstractDocumentJob(new File(System.getProperty("java.io.tmpdir"), "batch-engine-test" + count + ".pdf").getPath()) {
+
+                public void write(Writer writer) throws Exception {
+                }
+            };
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/**
+ * $Id$ [$Rev$]
+ * $Author$
+ * $Date$
+ * $URL$
+ *
+ * Copyright (c) 2009 by Andersen (F.C. Huang).
+ *
+ * The contents of this file is available under the MIT License.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+package fc.extensions.itext.jdbc;
+
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import fc.extensions.itext.Writer;
+import fc.extensions.itext.smart.CellStyle;
+import fc.extensions.itext.smart.Position;
+import fc.extensions.itext.smart.SmartTable;
+import fc.extensions.itext.smart.TableMediator;
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * ResultSetSource against a ResultSet proxy over rows in memory.
+ *
+ * The font is taken from -Dtest.font (test-sys-prop.test.font in nbproject/project.properties),
+ * or a common system font, the tests are skipped without one.
+ *
+ * @author Andersen
+ */
+public class ResultSetSourceTest {
+
+    private static final String[] FONTS = {
+        "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf",
+        "C:\\WINDOWS\\Fonts\\arial.ttf",
+        "/Library/Fonts/Arial.ttf"
+    };
+    private static final int ROWS = 16;
+    private static final int TABLES = 2;
+
+    private File pdfFile = null;
+    private Writer writer = null;
+
+    @Before
+    public void setUp() throws Exception {
+        String font = findFont();
+        assumeTrue(font != null);
+        pdfFile = File.createTempFile("result-set-source", ".pdf");
+        writer = new Writer(pdfFile.getPath(), PageSize.A4, font, font);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (pdfFile != null) {
+            pdfFile.delete();
+        }
+    }
+
+    private static String findFont() {
+        String font = System.getProperty("test.font");
+        if (font != null && new File(font).isFile()) {
+            return font;
+        }
+        for (String path : FONTS) {
+            if (new File(path).isFile()) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private TableMediator newMediator() throws Exception {
+        SmartTable table = new SmartTable(writer, new Position(20F, 20F, 575F, 820F), 3, ROWS, 8, .5F);
+        return new TableMediator(table, TABLES, 5F);
+    }
+
+    /**
+     * fill a mediator per page until the source is exhausted.
+     *
+     * @return records added per page.
+     */
+    private List<Integer> writePages(ResultSetSource source) throws Exception {
+        List<Integer> pages = new ArrayList<Integer>();
+        while (!source.isExhausted()) {
+            TableMediator mediator = newMediator();
+            pages.add(source.fill(mediator));
+            mediator.flush();
+            writer.newPage();
+        }
+        writer.close();
+        return pages;
+    }
+
+    private String pageText(int page) throws Exception {
+        PdfReader reader = new PdfReader(pdfFile.getPath());
+        try {
+            return new PdfTextExtractor(reader).getTextFromPage(page);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static List<Object[]> records(int count) {
+        List<Object[]> records = new ArrayList<Object[]>();
+        for (int i = 0; i < count; i++) {
+            records.add(new Object[]{"R" + String.format("%03d", i), "memo " + i, new BigDecimal(i).movePointLeft(2)});
+        }
+        return records;
+    }
+
+    @Test
+    public void fillsRecordsAcrossPages() throws Exception {
+        FakeResultSet data = new FakeResultSet(new String[]{"ID", "MEMO", "AMOUNT"}, records(95));
+        ResultSetSource source = new ResultSetSource(data.proxy());
+        source.addColumn("ID", CellStyle.DEFAULT).addColumn("MEMO", CellStyle.DEFAULT)
+                .addColumn("AMOUNT", CellStyle.DEFAULT, ColumnFormatters.number("0.00"));
+
+        List<Integer> pages = writePages(source);
+
+        assertEquals(3, pages.size());
+        assertEquals(Integer.valueOf(ROWS * TABLES), pages.get(0));
+        assertEquals(Integer.valueOf(ROWS * TABLES), pages.get(1));
+        assertEquals(Integer.valueOf(95 - 2 * ROWS * TABLES), pages.get(2));
+        assertEquals(95, source.getRowsRead());
+        assertFalse(source.hasPending());
+    }
+
+    @Test
+    public void keepsPendingRecordForNextFill() throws Exception {
+        FakeResultSet data = new FakeResultSet(new String[]{"ID", "MEMO", "AMOUNT"}, records(40));
+        ResultSetSource source = new ResultSetSource(data.proxy());
+
+        TableMediator mediator = newMediator();
+        assertEquals(ROWS * TABLES, source.fill(mediator));
+        assertTrue(source.hasPending());
+        assertFalse(source.isExhausted());
+        // the record which didn't fit was read once and not lost.
+        assertEquals(ROWS * TABLES + 1, source.getRowsRead());
+        mediator.flush();
+        writer.newPage();
+
+        mediator = newMediator();
+        assertEquals(40 - ROWS * TABLES, source.fill(mediator));
+        assertTrue(source.isExhausted());
+        assertEquals(40, source.getRowsRead());
+        mediator.flush();
+        writer.newPage();
+        writer.close();
+
+        String first = "R" + String.format("%03d", ROWS * TABLES);
+        assertFalse(pageText(1).contains(first));
+        assertTrue(pageText(2).contains(first));
+    }
+
+    @Test
+    public void resolvesLabelsOnce() throws Exception {
+        FakeResultSet data = new FakeResultSet(new String[]{"ID", "MEMO", "AMOUNT"}, records(3));
+        ResultSetSource source = new ResultSetSource(data.proxy());
+        source.addColumn("amount", CellStyle.DEFAULT, ColumnFormatters.number("0.00")).addColumn("Id", CellStyle.DEFAULT);
+
+        writePages(source);
+
+        assertEquals(2, data.findColumnCalls);
+        // the columns are written in the order they were added, not the order of the ResultSet.
+        assertTrue(pageText(1).contains("0.01\tR001"));
+    }
+
+    @Test(expected = SQLException.class)
+    public void failsOnUnknownLabel() throws Exception {
+        FakeResultSet data = new FakeResultSet(new String[]{"ID"}, records(1));
+        ResultSetSource source = new ResultSetSource(data.proxy());
+        source.addColumn("NOPE", CellStyle.DEFAULT);
+        source.fill(newMediator());
+    }
+
+    @Test
+    public void writesNullsAsEmptyCells() throws Exception {
+        List<Object[]> records = new ArrayList<Object[]>();
+        records.add(new Object[]{"R000", null, null});
+        records.add(new Object[]{null, "memo", new BigDecimal("1.50")});
+        FakeResultSet data = new FakeResultSet(new String[]{"ID", "MEMO", "AMOUNT"}, records);
+        ResultSetSource source = new ResultSetSource(data.proxy());
+        source.addColumn("ID", CellStyle.DEFAULT).addColumn("MEMO", CellStyle.DEFAULT)
+                .addColumn("AMOUNT", CellStyle.DEFAULT, ColumnFormatters.number("0.00"));
+
+        List<Integer> pages = writePages(source);
+
+        assertEquals(1, pages.size());
+        assertEquals(Integer.valueOf(2), pages.get(0));
+        String text = pageText(1);
+        assertTrue(text.contains("R000"));
+        assertTrue(text.contains("1.50"));
+        assertFalse(text.contains("null"));
+    }
+
+    @Test
+    public void appliesFetchSize() throws Exception {
+        FakeResultSet data = new FakeResultSet(new String[]{"ID"}, records(1));
+        ResultSetSource source = new ResultSetSource(data.proxy());
+        source.setFetchSize(500);
+        source.fill(newMediator());
+        assertEquals(500, data.fetchSize);
+    }
+
+    @Test
+    public void keepsDriverFetchSizeByDefault() throws Exception {
+        FakeResultSet data = new FakeResultSet(new String[]{"ID"}, records(1));
+        ResultSetSource source = new ResultSetSource(data.proxy());
+        source.fill(newMediator());
+        assertEquals(-1, data.fetchSize);
+    }
+
+    /**
+     * the ResultSet methods used by ResultSetSource and ColumnFormatters, over rows in memory.
+     */
+    private static final class FakeResultSet implements InvocationHandler {
+
+        private final String[] labels;
+        private final List<Object[]> rows;
+        private int cursor = -1;
+        private boolean wasNull = false;
+        private int fetchSize = -1;
+        private int findColumnCalls = 0;
+
+        FakeResultSet(String[] labels, List<Object[]> rows) {
+            this.labels = labels;
+            this.rows = rows;
+        }
+
+        ResultSet proxy() {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, this);
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                return ++cursor < rows.size();
+            }
+            if (name.equals("findColumn")) {
+                findColumnCalls++;
+                for (int i = 0; i < labels.length; i++) {
+                    if (labels[i].equalsIgnoreCase((String) args[0])) {
+                        return i + 1;
+                    }
+                }
+                throw new SQLException("no column " + args[0]);
+            }
+            if (name.equals("setFetchSize")) {
+                fetchSize = (Integer) args[0];
+                return null;
+            }
+            if (name.equals("wasNull")) {
+                return wasNull;
+            }
+            if (name.equals("getMetaData")) {
+                return Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                        new InvocationHandler() {
+
+                            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                                if (method.getName().equals("getColumnCount")) {
+                                    return labels.length;
+                                }
+                                throw new UnsupportedOperationException(method.getName());
+                            }
+                        });
+            }
+            if (name.equals("getString") || name.equals("getObject") || name.equals("getBigDecimal") || name.equals("getTimestamp")) {
+                Object value = rows.get(cursor)[(Integer) args[0] - 1];
+                wasNull = value == null;
+                return name.equals("getString") && value != null ? value.toString() : value;
+            }
+            throw new UnsupportedOperationException(name);
+        }
+    }
+}